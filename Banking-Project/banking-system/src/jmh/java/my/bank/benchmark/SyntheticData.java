@@ -0,0 +1,21 @@
+package my.bank.benchmark;
+
+import my.bank.tools.DatasetGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class SyntheticData {
+    public static final long SEED = 42;
+
+    public static File generate(int users, long transactions) throws IOException {
+        File directory = Files.createTempDirectory("dataset").toFile();
+        directory.deleteOnExit();
+        new DatasetGenerator(users, transactions, SEED).generate(directory);
+        for (File file : directory.listFiles()) {
+            file.deleteOnExit();
+        }
+        return directory;
+    }
+}
@@ -0,0 +1,38 @@
+package my.bank.repository;
+
+import my.bank.benchmark.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AccountLoadBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int accountCount;
+
+    private File accountsFile;
+    private TransactionRepository transactionRepository;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        File dataset = SyntheticData.generate(accountCount, 0);
+        accountsFile = new File(dataset, "accounts.csv");
+        transactionRepository = new TransactionRepository(new File(dataset, "transactions.csv"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transactionRepository.close();
+    }
+
+    @Benchmark
+    public AccountRepository populateAccounts() {
+        return new AccountRepository(accountsFile, transactionRepository);
+    }
+}
@@ -0,0 +1,70 @@
+package my.bank.repository;
+
+import my.bank.benchmark.SyntheticData;
+import my.bank.tools.DatasetGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AccountRepositoryBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int accountCount;
+
+    @Param({"NEVER", "BATCHED", "ALWAYS"})
+    private String fsyncPolicy;
+
+    private TransactionRepository transactionRepository;
+    private AccountRepository accountRepository;
+
+    @State(Scope.Thread)
+    public static class Transfers {
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().threadId());
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        File dataset = SyntheticData.generate(accountCount, 0);
+        TransactionJournal.FsyncPolicy policy = TransactionJournal.FsyncPolicy.valueOf(fsyncPolicy);
+        transactionRepository = new TransactionRepository(new File(dataset, "transactions.csv"), policy,
+                policy == TransactionJournal.FsyncPolicy.ALWAYS ? 1 : 4096);
+        accountRepository = new AccountRepository(new File(dataset, "accounts.csv"), transactionRepository);
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetTransactions() {
+        transactionRepository.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transactionRepository.close();
+    }
+
+    @Benchmark
+    public void transferRoundTrip(Transfers transfers) {
+        transferBetweenRandomAccounts(transfers.random);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void transferRoundTripContended(Transfers transfers) {
+        transferBetweenRandomAccounts(transfers.random);
+    }
+
+    private void transferBetweenRandomAccounts(SplittableRandom random) {
+        int sender = random.nextInt(accountCount);
+        int receiver = (sender + 1 + random.nextInt(accountCount - 1)) % accountCount;
+        int senderAccountNumber = DatasetGenerator.accountNumber(1 + sender);
+        int receiverAccountNumber = DatasetGenerator.accountNumber(1 + receiver);
+        accountRepository.transfer(senderAccountNumber, receiverAccountNumber, 0.01);
+        accountRepository.transfer(receiverAccountNumber, senderAccountNumber, 0.01);
+    }
+}
@@ -0,0 +1,66 @@
+package my.bank.repository;
+
+import my.bank.benchmark.SyntheticData;
+import my.bank.domain.Account;
+import my.bank.domain.PlanSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AccountScanBenchmark {
+    @Param({"100000", "1000000"})
+    private int accountCount;
+
+    private TransactionRepository transactionRepository;
+    private AccountRepository accountRepository;
+    private List<Account> accounts;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        File dataset = SyntheticData.generate(accountCount, 0);
+        transactionRepository = new TransactionRepository(new File(dataset, "transactions.csv"));
+        accountRepository = new AccountRepository(new File(dataset, "accounts.csv"), transactionRepository);
+        accounts = accountRepository.getAccountNumberMap().values();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transactionRepository.close();
+    }
+
+    @Benchmark
+    public long totalBalanceFromAccounts() {
+        long total = 0;
+        for (Account account : accounts) {
+            total += account.getBalanceCents();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double totalBalanceFromTable() {
+        return accountRepository.getTotalBalance();
+    }
+
+    @Benchmark
+    public long[] planReportFromAccounts() {
+        long[] balances = new long[4];
+        for (Account account : accounts) {
+            balances[account.getPlan().ordinal()] += account.getBalanceCents();
+        }
+        return balances;
+    }
+
+    @Benchmark
+    public List<PlanSummary> planReportFromTable() {
+        return accountRepository.getPlanReport();
+    }
+}
@@ -0,0 +1,64 @@
+package my.bank.repository;
+
+import my.bank.benchmark.SyntheticData;
+import my.bank.tools.DatasetGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BatchTransferBenchmark {
+    private static final int ACCOUNTS = 100_000;
+
+    @Param({"1000000"})
+    private int lines;
+
+    private TransactionRepository transactionRepository;
+    private AccountRepository accountRepository;
+    private File instructions;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        File dataset = SyntheticData.generate(ACCOUNTS, 0);
+        transactionRepository = new TransactionRepository(new File(dataset, "transactions.csv"),
+                TransactionJournal.FsyncPolicy.ALWAYS, 1);
+        accountRepository = new AccountRepository(new File(dataset, "accounts.csv"), transactionRepository);
+        instructions = new File(dataset, "payroll.csv");
+        instructions.deleteOnExit();
+        SplittableRandom random = new SplittableRandom(SyntheticData.SEED);
+        try (BufferedWriter writer = Files.newBufferedWriter(instructions.toPath())) {
+            writer.write("sender,receiver,amount\n");
+            for (int i = 0; i < lines; i++) {
+                int sender = DatasetGenerator.accountNumber(1 + random.nextInt(ACCOUNTS));
+                int receiver = DatasetGenerator.accountNumber(1 + random.nextInt(ACCOUNTS));
+                writer.write(sender + "," + receiver + "," + (1 + random.nextInt(100)) + "\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetTransactions() {
+        transactionRepository.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transactionRepository.close();
+    }
+
+    @Benchmark
+    public int executeBatch() {
+        try (BatchTransferEngine engine = new BatchTransferEngine(accountRepository)) {
+            return engine.execute(instructions).getCompleted();
+        }
+    }
+}
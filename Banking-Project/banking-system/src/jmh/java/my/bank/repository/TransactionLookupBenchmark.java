@@ -0,0 +1,75 @@
+package my.bank.repository;
+
+import my.bank.domain.Account;
+import my.bank.domain.CheckingAccount;
+import my.bank.domain.Transaction;
+import my.bank.domain.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class TransactionLookupBenchmark {
+    private static final int TRANSACTIONS_PER_ACCOUNT = 100;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int ledgerSize;
+
+    private TransactionRepository transactionRepository;
+    private Account[] accounts;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        File dataSource = File.createTempFile("transactions", ".csv");
+        dataSource.deleteOnExit();
+        Files.writeString(dataSource.toPath(), "accountNumber,timeStamp,type,amount\n");
+        transactionRepository = new TransactionRepository(dataSource, TransactionJournal.FsyncPolicy.NEVER, 4096);
+
+        accounts = new Account[ledgerSize / TRANSACTIONS_PER_ACCOUNT];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = new CheckingAccount();
+            accounts[i].setAccountNumber(10001 + i);
+        }
+        for (int i = 0; i < ledgerSize; i++) {
+            TransactionType type = i % 3 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT;
+            transactionRepository.addTransaction(accounts[i % accounts.length], type, 10.0);
+        }
+        random = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transactionRepository.close();
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactionsByAccount() {
+        return transactionRepository.getTransactions(accounts[random.nextInt(accounts.length)]);
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactionsByDateRange() {
+        LocalDate today = LocalDate.now();
+        return transactionRepository.getTransactions(accounts[random.nextInt(accounts.length)], today.minusDays(1), today.plusDays(1));
+    }
+
+    @Benchmark
+    public double sumAccountHistory() {
+        double total = 0.0;
+        for (Transaction transaction : transactionRepository.getTransactions(accounts[random.nextInt(accounts.length)])) {
+            total += transaction.getAmount();
+        }
+        return total;
+    }
+}
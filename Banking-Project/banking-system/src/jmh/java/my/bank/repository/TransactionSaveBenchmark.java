@@ -0,0 +1,57 @@
+package my.bank.repository;
+
+import my.bank.benchmark.SyntheticData;
+import my.bank.domain.Account;
+import my.bank.domain.CheckingAccount;
+import my.bank.domain.TransactionType;
+import my.bank.tools.DatasetGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TransactionSaveBenchmark {
+    @Param({"1", "100", "10000"})
+    private int batchSize;
+
+    @Param({"NEVER", "BATCHED", "ALWAYS"})
+    private String fsyncPolicy;
+
+    private TransactionRepository transactionRepository;
+    private Account account;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        transactionRepository = new TransactionRepository(
+                new File(SyntheticData.generate(1, 0), "transactions.csv"),
+                TransactionJournal.FsyncPolicy.valueOf(fsyncPolicy), batchSize);
+        account = new CheckingAccount();
+        account.setAccountNumber(DatasetGenerator.accountNumber(1));
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetTransactions() {
+        transactionRepository.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transactionRepository.close();
+    }
+
+    @Benchmark
+    public int saveTransactions() {
+        for (int i = 0; i < batchSize; i++) {
+            transactionRepository.addTransaction(account, TransactionType.CREDIT, 10.0);
+        }
+        transactionRepository.saveTransactions();
+        return transactionRepository.getSize();
+    }
+}
@@ -0,0 +1,51 @@
+package my.bank.repository;
+
+import my.bank.benchmark.SyntheticData;
+import my.bank.domain.User;
+import my.bank.tools.DatasetGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserRepositoryBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int userCount;
+
+    private UserRepository userRepository;
+    private String[] activeUsernames;
+
+    @State(Scope.Thread)
+    public static class Logins {
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().threadId());
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        userRepository = new UserRepository(new File(SyntheticData.generate(userCount, 0), "users.csv"));
+        DatasetGenerator generator = new DatasetGenerator(userCount, 0, SyntheticData.SEED);
+        activeUsernames = IntStream.rangeClosed(1, userCount)
+                .filter(generator::isActive)
+                .mapToObj(DatasetGenerator::username)
+                .toArray(String[]::new);
+    }
+
+    @Benchmark
+    public User login(Logins logins) {
+        return userRepository.login(activeUsernames[logins.random.nextInt(activeUsernames.length)], DatasetGenerator.PASSWORD);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public User loginContended(Logins logins) {
+        return userRepository.login(activeUsernames[logins.random.nextInt(activeUsernames.length)], DatasetGenerator.PASSWORD);
+    }
+}
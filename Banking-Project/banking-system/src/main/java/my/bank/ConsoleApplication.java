@@ -5,8 +5,13 @@ import my.bank.exception.InvalidPasswordException;
 import my.bank.exception.InvalidPinException;
 import my.bank.exception.InvalidUserNameException;
 import my.bank.repository.AccountRepository;
+import my.bank.repository.BatchTransferEngine;
+import my.bank.repository.BatchTransferReport;
+import my.bank.repository.CheckpointScheduler;
 import my.bank.repository.TransactionRepository;
 import my.bank.repository.UserRepository;
+import my.bank.repository.UserSearchIndex;
+import my.bank.security.SessionManager;
 import my.bank.utils.Logger;
 
 import java.io.File;
@@ -18,17 +23,29 @@ import java.util.Objects;
 import java.util.Scanner;
 
 public class ConsoleApplication {
+    private static final int SEARCH_PAGE_SIZE = 10;
+
     private UserRepository userRepository;
     private AccountRepository accountRepository;
     private TransactionRepository transactionRepository;
+    private CheckpointScheduler checkpointScheduler;
     private final Scanner scanner = new Scanner(System.in);
+    private final SessionManager sessionManager = new SessionManager();
     private User loggedInUser = null;
     private Account userAccount = null;
+    private String sessionToken = null;
 
     public void run() {
+        File ledgerFile = new File("transactions.ledger");
+        if (ledgerFile.exists()) {
+            Logger.printHint("Using the binary transaction ledger " + ledgerFile.getName() + ".");
+        }
+        transactionRepository = TransactionRepository.getInstance(ledgerFile.exists() ? ledgerFile : new File("transactions.csv"));
         userRepository = UserRepository.getInstance(new File("users.csv"));
         accountRepository = AccountRepository.getInstance(new File("accounts.csv"));
-        transactionRepository = TransactionRepository.getInstance(new File("transactions.csv"));
+        checkpointScheduler = new CheckpointScheduler(userRepository, accountRepository, transactionRepository,
+                CheckpointScheduler.configuredInterval());
+        checkpointScheduler.start();
         boolean isRunning = true;
         Logger.printStartEnd("Welcome to Banking Management System\n");
         while (isRunning) {
@@ -75,9 +92,7 @@ public class ConsoleApplication {
 
     private void exitSystem() {
         Logger.printStartEnd("Goodbye!");
-        userRepository.writeUsersInFile();
-        accountRepository.writeAccountsIntoFile();
-        transactionRepository.saveTransactions();
+        checkpointScheduler.close();
     }
 
     private boolean showCustomerMenu() {
@@ -90,7 +105,9 @@ public class ConsoleApplication {
         Logger.printMainMenu("6. Show Transactions History");
         Logger.printMainMenu("7. Reset Password");
         Logger.printMainMenu("8. Deactivate account");
-        Logger.printMainMenu("9. Logout");
+        Logger.printMainMenu("9. Switch Account");
+        Logger.printMainMenu("10. Open a New Account");
+        Logger.printMainMenu("11. Logout");
         try {
             int choice = scanner.nextInt();
             scanner.nextLine();
@@ -103,8 +120,10 @@ public class ConsoleApplication {
                 case 6 -> showTransactionHistoryPrompt();
                 case 7 -> ShowResetPasswordPrompt();
                 case 8 -> showDeactivateAccountPrompt();
-                case 9 -> logOut();
-                default -> Logger.warning("Please select an option (1-9):");
+                case 9 -> showSelectAccountPrompt();
+                case 10 -> showOpenAccountPrompt();
+                case 11 -> logOut();
+                default -> Logger.warning("Please select an option (1-11):");
             }
         } catch (Exception e) {
             Logger.error("An unexpected error occurred: " + e.getMessage() + ". Please try again.");
@@ -224,6 +243,8 @@ public class ConsoleApplication {
             return;
         }
         userRepository.resetPassword(loggedInUser.getUsername(), oldPassword, newPassword);
+        sessionManager.invalidateUser(loggedInUser.getId());
+        sessionToken = sessionManager.issue(loggedInUser.getId());
         Logger.printInfo("You have successfully set a new password.");
     }
 
@@ -299,9 +320,18 @@ public class ConsoleApplication {
     }
 
     private void inputAccountPin() {
+        SessionManager.Session session = sessionManager.validate(sessionToken).orElse(null);
+        if (session == null) {
+            logOut();
+            throw new IllegalStateException("Your session has expired. Please log in again");
+        }
+        if (session.isPinVerified(userAccount.getAccountNumber())) {
+            return;
+        }
         Logger.printHint("Enter your account's pin: ");
         String pin = scanner.nextLine();
         userAccount.validatePin(pin);
+        session.markPinVerified(userAccount.getAccountNumber());
     }
 
     private void showDeactivateAccountPrompt() {
@@ -315,6 +345,14 @@ public class ConsoleApplication {
             }
             if (userInput.equalsIgnoreCase("Y")) {
                 accountRepository.deactivateAccount(userAccount);
+                Account activeAccount = accountRepository.getUserAccounts(loggedInUser.getId()).stream()
+                        .filter(Account::isActive).findFirst().orElse(null);
+                if (activeAccount != null) {
+                    userAccount = activeAccount;
+                    Logger.printInfo("Your account was successfully deactivated! You are now using account "
+                            + userAccount.getAccountNumber() + ".");
+                    return;
+                }
                 userRepository.deactivateUser(loggedInUser);
                 Logger.printInfo("Your account was successfully deactivated! Goodbye!");
                 logOut();
@@ -374,9 +412,104 @@ public class ConsoleApplication {
     }
 
     private boolean showEmployeeMenu() {
+        Logger.printStartEnd("Menu For Employees:\n");
+        Logger.printMainMenu("1. Search Customers");
+        Logger.printMainMenu("2. Accounts Report");
+        Logger.printMainMenu("3. Bulk Transfers");
+        Logger.printMainMenu("4. Logout");
+        try {
+            int choice = scanner.nextInt();
+            scanner.nextLine();
+            switch (choice) {
+                case 1 -> showCustomerSearchPrompt();
+                case 2 -> showAccountsReport();
+                case 3 -> showBatchTransferPrompt();
+                case 4 -> logOut();
+                default -> Logger.warning("Please select an option (1-4):");
+            }
+        } catch (Exception e) {
+            Logger.error("An unexpected error occurred: " + e.getMessage() + ". Please try again.");
+        }
         return true;
     }
 
+    private void showAccountsReport() {
+        Logger.printInfo(String.join("\n", accountRepository.getPlanReport().stream()
+                .map(summary -> summary.plan() + ": " + summary.accounts() + " accounts ("
+                        + summary.activeAccounts() + " active), total balance " + summary.getBalance() + " USD.")
+                .toList()));
+        Logger.printInfo("Checking accounts total: " + accountRepository.getTotalBalance(AccountType.CHECKING_ACCOUNT) + " USD.");
+        Logger.printInfo("Savings accounts total: " + accountRepository.getTotalBalance(AccountType.SAVINGS_ACCOUNT) + " USD.");
+        Logger.printInfo("Bank total: " + accountRepository.getTotalBalance() + " USD, "
+                + accountRepository.getOverdrawnAccountCount() + " overdrawn accounts.");
+    }
+
+    private void showBatchTransferPrompt() {
+        Logger.warning("To go back to the main menu please enter -1");
+        System.out.println("Enter the path of the transfer file (one sender,receiver,amount per line): ");
+        String path = scanner.nextLine().trim();
+        if (path.equals("-1")) {
+            return;
+        }
+        File instructions = new File(path);
+        if (!instructions.isFile()) {
+            throw new IllegalArgumentException("File " + path + " does not exist");
+        }
+        BatchTransferReport report;
+        try (BatchTransferEngine engine = new BatchTransferEngine(accountRepository)) {
+            report = engine.execute(instructions);
+        }
+        File reportFile = new File(path + ".report.csv");
+        report.writeTo(reportFile);
+        Logger.printInfo("Processed " + report.size() + " transfers: " + report.getCompleted() + " completed, "
+                + report.getRejected() + " rejected, " + report.getInvalid() + " invalid, " + report.getFailed()
+                + " failed, " + report.getPending() + " not processed.");
+        Logger.printInfo("The outcome of every line was written to " + reportFile.getPath() + ".");
+    }
+
+    private void showCustomerSearchPrompt() {
+        Logger.warning("To go back to the main menu please enter -1");
+        Logger.printSubMenu("1. Search by username");
+        Logger.printSubMenu("2. Search by first name");
+        Logger.printSubMenu("3. Search by last name");
+        Logger.printSubMenu("4. Search all fields");
+        int choice = scanner.nextInt();
+        scanner.nextLine();
+        if (choice == -1) {
+            return;
+        }
+        UserSearchIndex.Field field = switch (choice) {
+            case 1 -> UserSearchIndex.Field.USERNAME;
+            case 2 -> UserSearchIndex.Field.FIRST_NAME;
+            case 3 -> UserSearchIndex.Field.LAST_NAME;
+            case 4 -> null;
+            default -> throw new IllegalArgumentException("Invalid option");
+        };
+        System.out.println("Enter the beginning of the name to search for: ");
+        String prefix = scanner.nextLine().trim();
+
+        UserSearchIndex.Cursor after = null;
+        while (true) {
+            UserSearchIndex.Page page = userRepository.searchUsers(field, prefix, after, SEARCH_PAGE_SIZE);
+            if (page.users().isEmpty()) {
+                Logger.printInfo(after == null ? "No customers found." : "No more customers found.");
+                return;
+            }
+            Logger.printInfo(String.join("\n", page.users().stream()
+                    .map(user -> user.getId() + ": " + user.getUsername() + " - " + user.getFirstName() + " "
+                            + user.getLastName() + (user.isActive() ? "" : " (deactivated)"))
+                    .toList()));
+            if (!page.hasMore()) {
+                return;
+            }
+            System.out.println("Show more results? (y/n)");
+            if (!scanner.nextLine().equalsIgnoreCase("Y")) {
+                return;
+            }
+            after = page.next();
+        }
+    }
+
     private void showLoginPrompt() {
         Logger.printStartEnd("Please log into system:");
         String username = inputUsername(false);
@@ -388,9 +521,82 @@ public class ConsoleApplication {
             return;
         }
         loggedInUser = userRepository.login(username, password);
+        sessionToken = sessionManager.issue(loggedInUser.getId());
         if (loggedInUser.getType() == UserType.CUSTOMER) {
-            userAccount = accountRepository.getUserAccount(loggedInUser.getId());
+            userAccount = accountRepository.getActiveUserAccount(loggedInUser.getId());
+            if (accountRepository.getUserAccountCount(loggedInUser.getId()) > 1) {
+                showSelectAccountPrompt();
+            }
+        }
+    }
+
+    private void showSelectAccountPrompt() {
+        int accountCount = accountRepository.getUserAccountCount(loggedInUser.getId());
+        int offset = 0;
+        while (true) {
+            int end = Math.min(offset + SEARCH_PAGE_SIZE, accountCount);
+            for (int i = offset; i < end; i++) {
+                Account account = accountRepository.getUserAccount(loggedInUser.getId(), i);
+                Logger.printSubMenu((i + 1) + ". " + account.getAccountNumber() + " - " + account.getType()
+                        + " (" + account.getPlan() + ")" + (account.isActive() ? "" : " (deactivated)"));
+            }
+            Logger.warning("To keep account " + userAccount.getAccountNumber() + " please enter -1");
+            if (end < accountCount) {
+                System.out.println("Please select an account, or enter 0 to show more accounts:");
+            } else {
+                System.out.println("Please select an account:");
+            }
+            int choice = scanner.nextInt();
+            scanner.nextLine();
+            if (choice == -1) {
+                return;
+            }
+            if (choice == 0 && end < accountCount) {
+                offset = end;
+                continue;
+            }
+            Account selectedAccount = accountRepository.getUserAccount(loggedInUser.getId(), choice - 1);
+            if (!selectedAccount.isActive()) {
+                Logger.warning("Account " + selectedAccount.getAccountNumber() + " is deactivated. Please select another account.");
+                continue;
+            }
+            userAccount = selectedAccount;
+            Logger.printInfo("You are now using account " + userAccount.getAccountNumber() + ".");
+            return;
+        }
+    }
+
+    private void showOpenAccountPrompt() {
+        int inputType = inputType();
+        if (inputType == -1) {
+            return;
+        }
+        AccountType type = AccountType.values()[inputType];
+        int inputPlan = inputPlan();
+        if (inputPlan == -1) {
+            return;
+        }
+        AccountPlan accountPlan = AccountPlan.values()[inputPlan];
+        double withdrawLimit = getWithdrawLimit(accountPlan);
+        if (withdrawLimit == -1) {
+            return;
+        }
+        double initialDeposit = inputInitialDeposit(accountPlan);
+        if (initialDeposit == -1) {
+            return;
+        }
+        String pin = inputPin();
+        if (pin.equals("-1")) {
+            return;
+        }
+        Logger.printInfo("You are opening a " + type + " account with the " + accountPlan + " plan. To proceed, please enter 1:");
+        int userInput = scanner.nextInt();
+        scanner.nextLine();
+        if (userInput != 1) {
+            return;
         }
+        userAccount = accountRepository.addNewAccount(loggedInUser.getId(), pin, type, accountPlan, withdrawLimit, initialDeposit);
+        Logger.printInfo("You have successfully opened account " + userAccount.getAccountNumber() + ". It is now your selected account.");
     }
 
     private void showSignupPrompt() {
@@ -683,8 +889,7 @@ public class ConsoleApplication {
             if (amount <= 0.0) {
                 throw new IllegalArgumentException("Invalid amount.");
             }
-            userAccount.deposit(amount);
-            accountRepository.logUserTransaction(userAccount, TransactionType.CREDIT, amount);
+            accountRepository.deposit(userAccount, amount);
             Logger.printInfo("You have successfully deposited " + amount + " USD. Your new balance is: " + userAccount.getBalance() + " USD.");
 
         } catch (Exception e) {
@@ -702,8 +907,7 @@ public class ConsoleApplication {
             if (amount <= 0.0) {
                 throw new IllegalArgumentException("Invalid amount.");
             }
-            userAccount.withdraw(amount);
-            accountRepository.logUserTransaction(userAccount, TransactionType.DEBIT, amount);
+            accountRepository.withdraw(userAccount, amount);
             Logger.printInfo("You have successfully withdrawn " + amount + " USD. Your new balance is: " + userAccount.getBalance() + " USD.");
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -712,7 +916,9 @@ public class ConsoleApplication {
 
     private void logOut() {
         userRepository.logout(loggedInUser.getUsername());
+        sessionManager.invalidate(sessionToken);
         loggedInUser = null;
         userAccount = null;
+        sessionToken = null;
     }
 }
@@ -1,9 +1,34 @@
 package my.bank;
 
+import my.bank.repository.AccountRepository;
+import my.bank.repository.CheckpointScheduler;
+import my.bank.repository.TransactionRepository;
+import my.bank.repository.UserRepository;
+import my.bank.server.SessionServer;
+
+import java.io.File;
+import java.io.IOException;
+
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("server")) {
+            runServer(args.length > 1 ? Integer.parseInt(args[1]) : SessionServer.DEFAULT_PORT);
+            return;
+        }
         ConsoleApplication application = new ConsoleApplication();
         application.run();
     }
-}
\ No newline at end of file
+
+    private static void runServer(int port) throws IOException {
+        File ledgerFile = new File("transactions.ledger");
+        TransactionRepository transactionRepository = TransactionRepository.getInstance(ledgerFile.exists() ? ledgerFile : new File("transactions.csv"));
+        UserRepository userRepository = UserRepository.getInstance(new File("users.csv"));
+        AccountRepository accountRepository = AccountRepository.getInstance(new File("accounts.csv"));
+        CheckpointScheduler checkpointScheduler = new CheckpointScheduler(userRepository, accountRepository,
+                transactionRepository, CheckpointScheduler.configuredInterval());
+        checkpointScheduler.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(checkpointScheduler::close));
+        new SessionServer(port, userRepository, accountRepository, transactionRepository).run();
+    }
+}
@@ -4,11 +4,16 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
-import lombok.Data;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import lombok.*;
+import my.bank.exception.HashingBusyException;
+import my.bank.security.HashingEngine;
+import my.bank.validation.Validators;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Data
 @JsonTypeInfo(
@@ -37,8 +42,9 @@ public abstract class Account {
     @JsonProperty("plan")
     private AccountPlan plan;
 
-    @JsonProperty("balance")
-    private Double balance;
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private volatile long balanceCents;
 
     @JsonProperty("withdrawLimit")
     private Double withdrawLimit;
@@ -57,7 +63,39 @@ public abstract class Account {
 
 
     @JsonIgnore
-    private static final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile Consumer<Account> changeListener;
+
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile byte[] pinDigest;
+
+    // Set while the account has changes its repository has not saved yet, so a change listener only has to
+    // queue the account the first time it changes.
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile boolean unsaved;
+
+    private static final VarHandle BALANCE_CENTS;
+    private static final VarHandle UNSAVED;
+
+    static {
+        try {
+            BALANCE_CENTS = MethodHandles.lookup().findVarHandle(Account.class, "balanceCents", long.class);
+            UNSAVED = MethodHandles.lookup().findVarHandle(Account.class, "unsaved", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     public Account() {
         this.favoriteAccounts = new ArrayList<>();
@@ -65,26 +103,143 @@ public abstract class Account {
 
     public abstract void withdraw(double amount);
 
+    protected abstract Account newInstance();
+
+    public Account copy() {
+        Account copy = newInstance();
+        copy.accountNumber = accountNumber;
+        copy.pin = pin;
+        copy.pinDigest = pinDigest;
+        copy.userId = userId;
+        copy.type = type;
+        copy.plan = plan;
+        copy.balanceCents = balanceCents;
+        copy.withdrawLimit = withdrawLimit;
+        copy.depositLimit = depositLimit;
+        copy.isActive = isActive;
+        copy.overdraftCounter = overdraftCounter;
+        copy.favoriteAccounts = new ArrayList<>(favoriteAccounts);
+        return copy;
+    }
+
     public void deposit(double amount) {
         if (amount > this.getDepositLimit())
             throw new IllegalArgumentException("deposit limit exceeds.");
-        this.setBalance(amount + this.getBalance());
+        BALANCE_CENTS.getAndAdd(this, toCents(amount));
+        markChanged();
+    }
+
+    @JsonProperty("balance")
+    public double getBalance() {
+        return toAmount(balanceCents);
+    }
+
+    @JsonProperty("balance")
+    public void setBalance(double balance) {
+        this.balanceCents = toCents(balance);
+        markChanged();
+    }
+
+    protected boolean compareAndSetBalanceCents(long expectedCents, long newCents) {
+        if (BALANCE_CENTS.compareAndSet(this, expectedCents, newCents)) {
+            markChanged();
+            return true;
+        }
+        return false;
+    }
+
+    @JsonProperty("isActive")
+    public void setActive(boolean isActive) {
+        this.isActive = isActive;
+        markChanged();
+    }
+
+    public void setOverdraftCounter(int overdraftCounter) {
+        this.overdraftCounter = overdraftCounter;
+        markChanged();
+    }
+
+    public void addFavoriteAccount(int accountNumber) {
+        favoriteAccounts.add(accountNumber);
+        markChanged();
+    }
+
+    public void removeFavoriteAccount(int accountNumber) {
+        favoriteAccounts.remove(Integer.valueOf(accountNumber));
+        markChanged();
+    }
+
+    public boolean markUnsaved() {
+        return !unsaved && UNSAVED.compareAndSet(this, false, true);
+    }
+
+    public void markSaved() {
+        unsaved = false;
+    }
+
+    public void setChangeListener(Consumer<Account> changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    protected void markChanged() {
+        Consumer<Account> listener = changeListener;
+        if (listener != null) {
+            listener.accept(this);
+        }
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static double toAmount(long cents) {
+        return cents / 100.0;
     }
 
     public void setNewPin(String pin) {
         if (pin == null || pin.isBlank()) {
             throw new IllegalArgumentException("Pin cannot be blank");
         }
-        if (!pin.matches("^\\d{4}$")) {
+        if (!Validators.validatePin(pin).isValid()) {
             throw new IllegalArgumentException("Invalid pin format! Only 4 digits.");
         }
-        this.pin = PasswordHashing.hashPasswordSHA1(pin);
+        setPin(HashingEngine.getInstance().hash(pin));
+        markChanged();
+    }
+
+    @JsonProperty("pin")
+    public synchronized void setPin(String pin) {
+        this.pin = pin;
+        this.pinDigest = PasswordHashing.fromHex(pin);
     }
 
     public void validatePin(String pin) {
-        if (!PasswordHashing.hashPasswordSHA1(pin).equals(this.pin)) {
+        String storedHash = this.pin;
+        byte[] digest = pinDigest;
+        HashingEngine hashingEngine = HashingEngine.getInstance();
+        boolean matches = digest != null
+                ? PasswordHashing.matchesSHA1(pin, digest)
+                : hashingEngine.verify(pin, storedHash);
+        if (!matches) {
             throw new IllegalArgumentException("Pin doesn't match");
         }
+        if (hashingEngine.needsRehash(storedHash)) {
+            try {
+                hashingEngine.rehashAsync(pin).thenAccept(hash -> upgradePin(storedHash, hash));
+            } catch (HashingBusyException e) {
+                // the pin is already verified; the next successful check retries the upgrade
+            }
+        }
+    }
+
+    private void upgradePin(String previousHash, String upgradedHash) {
+        synchronized (this) {
+            if (!previousHash.equals(this.pin)) {
+                return;
+            }
+            setPin(upgradedHash);
+        }
+        markChanged();
     }
 
 
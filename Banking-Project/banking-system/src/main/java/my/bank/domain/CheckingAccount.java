@@ -5,24 +5,45 @@ import static my.bank.domain.AccountType.CHECKING_ACCOUNT;
 public class CheckingAccount extends Account {
     private static final int OVERDRAFT_LIMIT = 2;
     private static final double OVERDRAFT_PENALTY = 50.0;
+    private static final long OVERDRAFT_PENALTY_CENTS = toCents(OVERDRAFT_PENALTY);
 
     public CheckingAccount() {
         setType(CHECKING_ACCOUNT);
     }
 
+    @Override
+    protected Account newInstance() {
+        return new CheckingAccount();
+    }
+
     @Override
     public void withdraw(double amount) {
         if (amount > this.getWithdrawLimit()) {
             throw new IllegalArgumentException("Withdraw limit exceeds.");
         }
-        if (this.getBalance() - amount < 0.0) {
-            if (this.getOverdraftCounter() == OVERDRAFT_LIMIT) {
-                throw new IllegalArgumentException("You have reached the overdraft limit. you cannot withdraw from your account.");
+        long amountCents = toCents(amount);
+        while (true) {
+            long balanceCents = this.getBalanceCents();
+            if (balanceCents - amountCents >= 0) {
+                if (compareAndSetBalanceCents(balanceCents, balanceCents - amountCents)) {
+                    return;
+                }
+                continue;
+            }
+            if (withdrawWithOverdraft(balanceCents, amountCents)) {
+                return;
             }
-            this.setOverdraftCounter(this.getOverdraftCounter() + 1);
-            this.setBalance(this.getBalance() - (amount + OVERDRAFT_PENALTY));
-            return;
         }
-        this.setBalance(this.getBalance() - amount);
+    }
+
+    private synchronized boolean withdrawWithOverdraft(long balanceCents, long amountCents) {
+        if (this.getOverdraftCounter() == OVERDRAFT_LIMIT) {
+            throw new IllegalArgumentException("You have reached the overdraft limit. you cannot withdraw from your account.");
+        }
+        if (!compareAndSetBalanceCents(balanceCents, balanceCents - (amountCents + OVERDRAFT_PENALTY_CENTS))) {
+            return false;
+        }
+        this.setOverdraftCounter(this.getOverdraftCounter() + 1);
+        return true;
     }
 }
@@ -0,0 +1,7 @@
+package my.bank.domain;
+
+public record PlanSummary(AccountPlan plan, int accounts, int activeAccounts, long balanceCents) {
+    public double getBalance() {
+        return Account.toAmount(balanceCents);
+    }
+}
@@ -9,14 +9,26 @@ public class SavingsAccount extends Account {
     }
 
     private double interestRate;
+
+    @Override
+    protected Account newInstance() {
+        return new SavingsAccount();
+    }
+
     @Override
     public void withdraw(double amount) {
         if (amount > this.getWithdrawLimit()) {
             throw new IllegalArgumentException("Withdraw limit exceeds.");
         }
-        if (this.getBalance() - amount < 0.0) {
-            throw new IllegalArgumentException("You cannot withdraw an amount more than your current balance.");
+        long amountCents = toCents(amount);
+        while (true) {
+            long balanceCents = this.getBalanceCents();
+            if (balanceCents - amountCents < 0) {
+                throw new IllegalArgumentException("You cannot withdraw an amount more than your current balance.");
+            }
+            if (compareAndSetBalanceCents(balanceCents, balanceCents - amountCents)) {
+                return;
+            }
         }
-        this.setBalance(this.getBalance() - amount);
     }
 }
@@ -2,8 +2,13 @@ package my.bank.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Data;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import lombok.*;
+import my.bank.exception.HashingBusyException;
+import my.bank.security.HashingEngine;
+import my.bank.validation.ValidationResult;
+import my.bank.validation.Validators;
+
+import java.util.function.Consumer;
 
 @Data
 public class User {
@@ -29,10 +34,18 @@ public class User {
     private boolean isActive;
 
     @JsonIgnore
-    private int loginFailedAttempts = 0;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile byte[] passwordDigest;
 
     @JsonIgnore
-    private static final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile Consumer<User> changeListener;
 
     public User() {
     }
@@ -46,14 +59,47 @@ public class User {
     }
 
     public void setRawPassword(String password) {
-        if (!isValidPassword(password)) {
-            throw new IllegalArgumentException("Password does not meet the required criteria.");
+        ValidationResult result = Validators.validatePassword(password);
+        if (!result.isValid()) {
+            throw new IllegalArgumentException(result.message());
         }
-        this.password = PasswordHashing.hashPasswordSHA1(password);
+        setPassword(HashingEngine.getInstance().hash(password));
+    }
+
+    @JsonProperty("password")
+    public synchronized void setPassword(String password) {
+        this.password = password;
+        this.passwordDigest = PasswordHashing.fromHex(password);
+        markChanged();
+    }
+
+    @JsonProperty("isActive")
+    public void setActive(boolean isActive) {
+        this.isActive = isActive;
+        markChanged();
     }
 
     public boolean matchPassword(String password) {
-        return (PasswordHashing.hashPasswordSHA1(password).equals(this.password));
+        String storedHash = this.password;
+        byte[] digest = passwordDigest;
+        HashingEngine hashingEngine = HashingEngine.getInstance();
+        boolean matches = digest != null
+                ? PasswordHashing.matchesSHA1(password, digest)
+                : hashingEngine.verify(password, storedHash);
+        if (matches && hashingEngine.needsRehash(storedHash)) {
+            try {
+                hashingEngine.rehashAsync(password).thenAccept(hash -> upgradePassword(storedHash, hash));
+            } catch (HashingBusyException e) {
+                // the password is already verified; the next successful login retries the upgrade
+            }
+        }
+        return matches;
+    }
+
+    private synchronized void upgradePassword(String previousHash, String upgradedHash) {
+        if (previousHash.equals(password)) {
+            setPassword(upgradedHash);
+        }
     }
 
     public void SetName(String firstName, String lastName) {
@@ -66,25 +112,17 @@ public class User {
         }
         this.firstName = firstName;
         this.lastName = lastName;
+        markChanged();
     }
 
-    public static boolean isValidPassword(String password) {
-        if (password == null || password.length() < 6) {
-            System.out.println("Password must be at least 6 characters long.");
-            return false;
-        }
-        if (!password.matches(".*[a-z].*")) {
-            System.out.println("Password must contain at least one lowercase letter.");
-            return false;
-        }
-        if (!password.matches(".*[A-Z].*")) {
-            System.out.println("Password must contain at least one uppercase letter.");
-            return false;
-        }
-        if (!password.matches(".*\\d.*")) {
-            System.out.println("Password must contain at least one digit.");
-            return false;
+    public void setChangeListener(Consumer<User> changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    private void markChanged() {
+        Consumer<User> listener = changeListener;
+        if (listener != null) {
+            listener.accept(this);
         }
-        return true;
     }
-}
\ No newline at end of file
+}
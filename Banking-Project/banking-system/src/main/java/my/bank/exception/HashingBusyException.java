@@ -0,0 +1,7 @@
+package my.bank.exception;
+
+public class HashingBusyException extends RuntimeException {
+    public HashingBusyException() {
+        super("Too many authentication requests at the moment. Please try again.");
+    }
+}
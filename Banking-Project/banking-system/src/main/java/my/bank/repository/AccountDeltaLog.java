@@ -0,0 +1,120 @@
+package my.bank.repository;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import lombok.SneakyThrows;
+import my.bank.domain.Account;
+import my.bank.utils.AtomicFileWriter;
+import my.bank.utils.CsvMapperUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+class AccountDeltaLog {
+    record Mark(long position, long records) {
+    }
+
+    private final File file;
+    private FileChannel channel;
+    private final byte[] header;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long records;
+
+    @SneakyThrows
+    AccountDeltaLog(File file) {
+        this.file = file;
+        this.header = (String.join(",", CsvMapperUtils.ACCOUNT_SCHEMA.getColumnNames()) + "\n").getBytes(StandardCharsets.UTF_8);
+        this.channel = open(file);
+        TransactionJournal.repairTail(channel, header);
+    }
+
+    @SneakyThrows
+    void forEach(Consumer<Account> consumer) {
+        lock.lock();
+        try {
+            records = 0;
+            try (MappingIterator<Account> iterator = CsvMapperUtils.readerFor(Account.class).readValues(file)) {
+                while (iterator.hasNext()) {
+                    consumer.accept(iterator.next());
+                    records++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SneakyThrows
+    void append(Collection<Account> accounts) {
+        if (accounts.isEmpty()) {
+            return;
+        }
+        byte[] rows = CsvMapperUtils.rowWriterFor(Account.class).writeValueAsBytes(accounts);
+        lock.lock();
+        try {
+            TransactionJournal.append(channel, rows);
+            channel.force(false);
+            records += accounts.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long size() {
+        lock.lock();
+        try {
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SneakyThrows
+    Mark mark() {
+        lock.lock();
+        try {
+            return new Mark(channel.size(), records);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SneakyThrows
+    void discardUpTo(Mark mark) {
+        lock.lock();
+        try {
+            ByteBuffer tail = ByteBuffer.allocate((int) (channel.size() - mark.position()));
+            while (tail.hasRemaining()) {
+                channel.read(tail, mark.position() + tail.position());
+            }
+            AtomicFileWriter.write(file, output -> {
+                output.write(header);
+                output.write(tail.array());
+            });
+            channel.close();
+            channel = open(file);
+            records -= mark.records();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void reset() {
+        discardUpTo(mark());
+    }
+
+    @SneakyThrows
+    void close() {
+        channel.close();
+    }
+
+    private static FileChannel open(File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
@@ -1,18 +1,28 @@
 package my.bank.repository;
 
-import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.dataformat.csv.CsvMapper;
-import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import lombok.Data;
 import my.bank.domain.*;
 import my.bank.exception.InvalidPinException;
+import my.bank.utils.AtomicFileWriter;
+import my.bank.utils.CsvMapperUtils;
+import my.bank.utils.IntObjectMap;
+import my.bank.validation.ValidationResult;
+import my.bank.validation.Validators;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 @Data
 public class AccountRepository {
@@ -25,45 +35,65 @@ public class AccountRepository {
     private static final double DEPOSIT_LIMIT_GOLD = 15000.0;
     private static final double DEPOSIT_LIMIT_SILVER = 1500.0;
     private static final double DEPOSIT_LIMIT_NORMAL = 300.0;
-    private Map<Integer, Account> userAccountMap = new HashMap<>();
-    private Map<Integer, Account> accountNumberMap = new HashMap<>();
-
-    private static TransactionRepository transactionRepository = TransactionRepository.getInstance(new File("transactions.csv"));
-
-    private int accountNumberCounter;
+    private static final int LOCK_STRIPES = 1024;
+    private static final int COMPACTION_MIN_RECORDS = 4096;
+    private static final String DELTA_EXTENSION = ".delta";
+
+    private final UserAccountIndex userAccounts = new UserAccountIndex();
+    private final IntObjectMap<Account> accountNumberMap = new IntObjectMap<>();
+    private final AccountTable accountTable = new AccountTable();
+    private final ReentrantLock[] accountLocks = new ReentrantLock[LOCK_STRIPES];
+    // Deposits and withdrawals share the gate while they change a balance and journal it, checkpoints take
+    // it exclusively, so a saved balance is never ahead of the journal without serializing the operations.
+    private final ReentrantReadWriteLock journalGate = new ReentrantReadWriteLock(true);
+    private final Set<Integer> changedAccounts = ConcurrentHashMap.newKeySet();
+    private final AccountDeltaLog deltaLog;
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("account-compaction").daemon().factory());
+
+    private final TransactionRepository transactionRepository;
+
+    private final AtomicInteger accountNumberCounter = new AtomicInteger();
     private final File dataSource;
     private static AccountRepository accountRepositoryInstance = null;
 
-    private AccountRepository(File dataSource) {
+    AccountRepository(File dataSource, TransactionRepository transactionRepository) {
         this.dataSource = dataSource;
+        this.transactionRepository = transactionRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            accountLocks[i] = new ReentrantLock();
+        }
+        this.deltaLog = new AccountDeltaLog(new File(dataSource.getPath() + DELTA_EXTENSION));
         populateAccounts();
     }
 
-    public static AccountRepository getInstance(File dataSource) {
-        return Objects.requireNonNullElseGet(accountRepositoryInstance, () -> accountRepositoryInstance = new AccountRepository(dataSource));
+    public static synchronized AccountRepository getInstance(File dataSource) {
+        if (accountRepositoryInstance == null) {
+            accountRepositoryInstance = new AccountRepository(dataSource,
+                    TransactionRepository.getInstance(new File("transactions.csv")));
+        }
+        return accountRepositoryInstance;
     }
 
     void clear() {
-        userAccountMap.clear();
+        userAccounts.clear();
         accountNumberMap.clear();
+        accountTable.clear();
+        changedAccounts.clear();
+        deltaLog.reset();
     }
 
     private void populateAccounts() {
-        CsvMapper csvMapper = new CsvMapper();
-        CsvSchema schema = csvMapper.schemaFor(Account.class)
-                .withHeader()
-                .withColumnReordering(true);
-
-        ObjectReader reader = csvMapper.readerFor(Account.class).with(schema);
-
         try {
-            reader.readValues(dataSource).readAll().stream().map(o -> (Account) o)
-                    .forEach(account -> {
-                        userAccountMap.put(account.getUserId(), account);
-                        accountNumberMap.put(account.getAccountNumber(), account);
-                    });
+            CsvMapperUtils.readerFor(Account.class).readValues(dataSource).readAll().stream().map(o -> (Account) o)
+                    .forEach(this::putAccount);
+            deltaLog.forEach(this::putAccount);
+            accountNumberMap.forEachValue(this::registerInTable);
 
-            accountNumberCounter = accountNumberMap.keySet().stream().max(Integer::compareTo).orElse(10000);
+            accountNumberCounter.set(10000);
+            accountNumberMap.forEachValue(account -> accountNumberCounter.accumulateAndGet(account.getAccountNumber(), Math::max));
 
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -84,7 +114,7 @@ public class AccountRepository {
         }
         newAccount.setUserId(userId);
         newAccount.setNewPin(pin);
-        newAccount.setAccountNumber(++accountNumberCounter);
+        newAccount.setAccountNumber(accountNumberCounter.incrementAndGet());
         newAccount.setPlan(plan);
         newAccount.setType(type);
         newAccount.setWithdrawLimit(withdrawLimit);
@@ -92,8 +122,10 @@ public class AccountRepository {
         newAccount.setDepositLimit(getDepositLimit(plan));
         newAccount.setActive(true);
 
-        userAccountMap.put(userId, newAccount);
-        accountNumberMap.put(newAccount.getAccountNumber(), newAccount);
+        putAccount(newAccount);
+        registerInTable(newAccount);
+        newAccount.markUnsaved();
+        changedAccounts.add(newAccount.getAccountNumber());
         logUserTransaction(newAccount, TransactionType.CREDIT, newAccount.getBalance());
         return newAccount;
     }
@@ -185,51 +217,226 @@ public class AccountRepository {
     }
 
     public int getSize() {
-        return userAccountMap.size();
+        return accountNumberMap.size();
     }
 
     public Account getUserAccount(int userId) {
-        if (!userAccountMap.containsKey(userId)) {
+        return getUserAccount(userId, 0);
+    }
+
+    public Account getUserAccount(int userId, int index) {
+        if (userAccounts.count(userId) == 0) {
             throw new IllegalArgumentException("No account found.");
         }
-        return userAccountMap.get(userId);
-    }
-
-    public void writeAccountsIntoFile() {
-        CsvMapper csvMapper = new CsvMapper();
-        CsvSchema schema = CsvSchema.builder()
-                .addColumn("accountNumber")
-                .addColumn("pin")
-                .addColumn("userId")
-                .addColumn("type")
-                .addColumn("plan")
-                .addColumn("balance")
-                .addColumn("withdrawLimit")
-                .addColumn("depositLimit")
-                .addColumn("isActive")
-                .addColumn("overdraftCounter")
-                .addColumn("favoriteAccounts")
-                .setUseHeader(true)
-                .build();
+        return accountNumberMap.get(userAccounts.accountNumberAt(userId, index));
+    }
+
+    public Account getActiveUserAccount(int userId) {
+        for (int accountNumber : userAccounts.accountNumbers(userId)) {
+            Account account = accountNumberMap.get(accountNumber);
+            if (account.isActive()) {
+                return account;
+            }
+        }
+        throw new IllegalArgumentException("No active account found.");
+    }
+
+    public int getUserAccountCount(int userId) {
+        return userAccounts.count(userId);
+    }
+
+    public List<Account> getUserAccounts(int userId) {
+        int[] accountNumbers = userAccounts.accountNumbers(userId);
+        List<Account> accounts = new ArrayList<>(accountNumbers.length);
+        for (int accountNumber : accountNumbers) {
+            accounts.add(accountNumberMap.get(accountNumber));
+        }
+        return accounts;
+    }
+
+    public synchronized void writeAccountsIntoFile() {
+        deltaLog.append(drainChanges());
+        if (deltaLog.size() >= Math.max(COMPACTION_MIN_RECORDS, accountNumberMap.size())
+                && compactionScheduled.compareAndSet(false, true)) {
+            compactionExecutor.execute(() -> {
+                try {
+                    compactAccounts();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    public void compactAccounts() {
+        compactionLock.lock();
+        try {
+            AccountDeltaLog.Mark mark = deltaLog.mark();
+            List<Account> snapshot = snapshotAccounts();
+            AtomicFileWriter.write(dataSource, output -> CsvMapperUtils.writerFor(Account.class).writeValue(output, snapshot));
+            deltaLog.discardUpTo(mark);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    // Full compaction is left to the delta log size threshold in writeAccountsIntoFile.
+    public void checkpoint() {
+        writeAccountsIntoFile();
+    }
+
+    // A full copy of the book, which also covers every pending change.
+    List<Account> snapshotAccounts() {
+        return copyAccounts(false);
+    }
+
+    private List<Account> drainChanges() {
+        if (changedAccounts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return copyAccounts(true);
+    }
+
+    // Copies with the gate and every stripe held, so both sides of a transfer land in the same copy
+    // and no copied balance is ahead of its journal record.
+    private List<Account> copyAccounts(boolean changedOnly) {
+        journalGate.writeLock().lock();
+        for (ReentrantLock lock : accountLocks) {
+            lock.lock();
+        }
         try {
-            csvMapper.writer(schema).writeValue(dataSource, userAccountMap.values());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            List<Account> copies = new ArrayList<>(changedOnly ? changedAccounts.size() : accountNumberMap.size());
+            Iterator<Integer> iterator = changedAccounts.iterator();
+            while (iterator.hasNext()) {
+                Account account = accountNumberMap.get(iterator.next());
+                iterator.remove();
+                if (account != null) {
+                    account.markSaved();
+                    if (changedOnly) {
+                        copies.add(account.copy());
+                    }
+                }
+            }
+            if (!changedOnly) {
+                accountNumberMap.forEachValue(account -> copies.add(account.copy()));
+            }
+            return copies;
+        } finally {
+            for (int i = accountLocks.length - 1; i >= 0; i--) {
+                accountLocks[i].unlock();
+            }
+            journalGate.writeLock().unlock();
         }
     }
 
+    int getPendingChanges() {
+        return changedAccounts.size();
+    }
+
+    long getDeltaLogSize() {
+        return deltaLog.size();
+    }
+
+    private void putAccount(Account account) {
+        if (accountNumberMap.put(account.getAccountNumber(), account) == null) {
+            userAccounts.add(account.getUserId(), account.getAccountNumber());
+        }
+    }
+
+    private void registerInTable(Account account) {
+        int slot = accountTable.add(account);
+        account.setChangeListener(changed -> {
+            if (changed.markUnsaved()) {
+                changedAccounts.add(changed.getAccountNumber());
+            }
+            accountTable.update(slot, changed);
+        });
+    }
+
+    public double getTotalBalance() {
+        return Account.toAmount(accountTable.totalBalanceCents());
+    }
+
+    public double getTotalBalance(AccountType type) {
+        return Account.toAmount(accountTable.totalBalanceCents(type));
+    }
+
+    public int getOverdrawnAccountCount() {
+        return accountTable.countOverdrawn();
+    }
+
+    public List<PlanSummary> getPlanReport() {
+        return accountTable.summarizeByPlan();
+    }
+
     public void transfer(int senderAccountNumber, int receiverAccountNumber, double amount) {
-        if (!accountNumberMap.containsKey(receiverAccountNumber)) {
+        Account receiverAccount = accountNumberMap.get(receiverAccountNumber);
+        if (receiverAccount == null) {
             throw new IllegalArgumentException("Invalid receiver account Number");
         }
-        if (!accountNumberMap.containsKey(senderAccountNumber)) {
+        Account senderAccount = accountNumberMap.get(senderAccountNumber);
+        if (senderAccount == null) {
             throw new IllegalArgumentException("Invalid sender account Number");
         }
-        if (accountNumberMap.get(receiverAccountNumber).getDepositLimit() >= amount) {
-            accountNumberMap.get(senderAccountNumber).withdraw(amount);
-            logUserTransaction(accountNumberMap.get(senderAccountNumber), TransactionType.DEBIT, amount);
-            accountNumberMap.get(receiverAccountNumber).deposit(amount);
-            logUserTransaction(accountNumberMap.get(receiverAccountNumber), TransactionType.CREDIT, amount);
+        transferBetween(senderAccount, receiverAccount, amount, transactionRepository::addTransaction);
+    }
+
+    boolean transferBetween(Account senderAccount, Account receiverAccount, double amount, Consumer<Transaction> journal) {
+        int senderLockIndex = lockIndex(senderAccount.getAccountNumber());
+        int receiverLockIndex = lockIndex(receiverAccount.getAccountNumber());
+        ReentrantLock firstLock = accountLocks[Math.min(senderLockIndex, receiverLockIndex)];
+        ReentrantLock secondLock = accountLocks[Math.max(senderLockIndex, receiverLockIndex)];
+        firstLock.lock();
+        secondLock.lock();
+        try {
+            validateActive(senderAccount);
+            validateActive(receiverAccount);
+            if (receiverAccount.getDepositLimit() < amount) {
+                return false;
+            }
+            senderAccount.withdraw(amount);
+            receiverAccount.deposit(amount);
+            journal.accept(TransactionRepository.newTransaction(senderAccount, TransactionType.DEBIT, amount));
+            journal.accept(TransactionRepository.newTransaction(receiverAccount, TransactionType.CREDIT, amount));
+            return true;
+        } finally {
+            secondLock.unlock();
+            firstLock.unlock();
+        }
+    }
+
+    // Runs several transfers that collect their transactions and journals them with one append at the end.
+    // The gate is held throughout, so a checkpoint waits for the batch instead of saving balances ahead of it.
+    void transferBatch(Consumer<Consumer<Transaction>> transfers) {
+        List<Transaction> journal = new ArrayList<>();
+        journalGate.readLock().lock();
+        try {
+            transfers.accept(journal::add);
+            transactionRepository.addTransactions(journal);
+        } finally {
+            journalGate.readLock().unlock();
+        }
+    }
+
+    public void deposit(Account account, double amount) {
+        journalGate.readLock().lock();
+        try {
+            validateActive(account);
+            account.deposit(amount);
+            logUserTransaction(account, TransactionType.CREDIT, amount);
+        } finally {
+            journalGate.readLock().unlock();
+        }
+    }
+
+    public void withdraw(Account account, double amount) {
+        journalGate.readLock().lock();
+        try {
+            validateActive(account);
+            account.withdraw(amount);
+            logUserTransaction(account, TransactionType.DEBIT, amount);
+        } finally {
+            journalGate.readLock().unlock();
         }
     }
 
@@ -243,27 +450,49 @@ public class AccountRepository {
     }
 
     public void validatePin(String pin) {
-        if (!pin.matches("^\\d{4}$")) {
-            throw new InvalidPinException("Invalid pin format! only 4 digit.");
+        ValidationResult result = Validators.validatePin(pin);
+        if (!result.isValid()) {
+            throw new InvalidPinException(result.message());
         }
     }
 
     public List<Account> getAllFavoriteAccount(Account account) {
-        validateAccountNumber(account.getAccountNumber());
-        return accountNumberMap.get(account.getAccountNumber()).getFavoriteAccounts().stream()
-                .map(id -> accountNumberMap.get(id)).toList();
+        List<Integer> favoriteAccounts = getAccount(account.getAccountNumber()).getFavoriteAccounts();
+        List<Account> accounts = new ArrayList<>(favoriteAccounts.size());
+        for (int favoriteAccountNumber : favoriteAccounts) {
+            accounts.add(accountNumberMap.get(favoriteAccountNumber));
+        }
+        return accounts;
     }
 
     public void addNewFavoriteAccount(Account account, Account favoriteAccount) {
-        validateAccountNumber(account.getAccountNumber());
+        Account storedAccount = getAccount(account.getAccountNumber());
         validateAccountNumber(favoriteAccount.getAccountNumber());
-        accountNumberMap.get(account.getAccountNumber()).getFavoriteAccounts().add(favoriteAccount.getAccountNumber());
+        ReentrantLock lock = lockFor(account.getAccountNumber());
+        lock.lock();
+        try {
+            storedAccount.addFavoriteAccount(favoriteAccount.getAccountNumber());
+        } finally {
+            lock.unlock();
+        }
     }
 
     public void removeFavoriteAccount(Account account, Account favoriteAccount) {
-        validateAccountNumber(account.getAccountNumber());
+        Account storedAccount = getAccount(account.getAccountNumber());
         validateAccountNumber(favoriteAccount.getAccountNumber());
-        accountNumberMap.get(account.getAccountNumber()).getFavoriteAccounts().remove(favoriteAccount.getAccountNumber());
+        ReentrantLock lock = lockFor(account.getAccountNumber());
+        lock.lock();
+        try {
+            storedAccount.removeFavoriteAccount(favoriteAccount.getAccountNumber());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void validateActive(Account account) {
+        if (!account.isActive()) {
+            throw new IllegalArgumentException("Account " + account.getAccountNumber() + " is deactivated.");
+        }
     }
 
     public void validateAccountNumber(int accountNumber) {
@@ -273,8 +502,18 @@ public class AccountRepository {
     }
 
     public Account getAccount(int accountNumber) {
-        validateAccountNumber(accountNumber);
-        return accountNumberMap.get(accountNumber);
+        Account account = accountNumberMap.get(accountNumber);
+        if (account == null) {
+            throw new IllegalArgumentException("Invalid account number.");
+        }
+        return account;
+    }
+
+    private ReentrantLock lockFor(int accountNumber) {
+        return accountLocks[lockIndex(accountNumber)];
+    }
 
+    private int lockIndex(int accountNumber) {
+        return accountNumber & (LOCK_STRIPES - 1);
     }
 }
@@ -0,0 +1,167 @@
+package my.bank.repository;
+
+import my.bank.domain.Account;
+import my.bank.domain.AccountPlan;
+import my.bank.domain.AccountType;
+import my.bank.domain.PlanSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Columnar mirror of the account book, one primitive array per field indexed by a dense slot.
+// Accounts stay the source of truth and push their state here through the change listener.
+class AccountTable {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final byte NONE = -1;
+
+    // Chunks never move once allocated, so an update racing with growth cannot be lost.
+    private static final class Chunk {
+        final int[] accountNumbers = new int[CHUNK_SIZE];
+        final int[] userIds = new int[CHUNK_SIZE];
+        final long[] balanceCents = new long[CHUNK_SIZE];
+        final long[] withdrawLimitCents = new long[CHUNK_SIZE];
+        final long[] depositLimitCents = new long[CHUNK_SIZE];
+        final byte[] plans = new byte[CHUNK_SIZE];
+        final byte[] types = new byte[CHUNK_SIZE];
+        final boolean[] active = new boolean[CHUNK_SIZE];
+        final int[] overdraftCounters = new int[CHUNK_SIZE];
+    }
+
+    private final ReentrantLock growLock = new ReentrantLock();
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+
+    int add(Account account) {
+        growLock.lock();
+        try {
+            int slot = size;
+            int chunkIndex = slot >>> CHUNK_BITS;
+            if (chunkIndex == chunks.length) {
+                Chunk[] grown = new Chunk[chunkIndex + 1];
+                System.arraycopy(chunks, 0, grown, 0, chunkIndex);
+                grown[chunkIndex] = new Chunk();
+                chunks = grown;
+            }
+            Chunk chunk = chunks[chunkIndex];
+            int i = slot & CHUNK_MASK;
+            chunk.accountNumbers[i] = account.getAccountNumber();
+            chunk.userIds[i] = account.getUserId() == null ? 0 : account.getUserId();
+            chunk.plans[i] = account.getPlan() == null ? NONE : (byte) account.getPlan().ordinal();
+            chunk.types[i] = account.getType() == null ? NONE : (byte) account.getType().ordinal();
+            write(chunk, i, account);
+            size = slot + 1;
+            return slot;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    void update(int slot, Account account) {
+        write(chunks[slot >>> CHUNK_BITS], slot & CHUNK_MASK, account);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        growLock.lock();
+        try {
+            chunks = new Chunk[0];
+            size = 0;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    long totalBalanceCents() {
+        int remaining = size;
+        Chunk[] current = chunks;
+        long total = 0;
+        for (int c = 0; remaining > 0; c++, remaining -= CHUNK_SIZE) {
+            long[] balances = current[c].balanceCents;
+            int length = Math.min(remaining, CHUNK_SIZE);
+            for (int i = 0; i < length; i++) {
+                total += balances[i];
+            }
+        }
+        return total;
+    }
+
+    int countOverdrawn() {
+        int remaining = size;
+        Chunk[] current = chunks;
+        int count = 0;
+        for (int c = 0; remaining > 0; c++, remaining -= CHUNK_SIZE) {
+            long[] balances = current[c].balanceCents;
+            int length = Math.min(remaining, CHUNK_SIZE);
+            for (int i = 0; i < length; i++) {
+                count += balances[i] < 0 ? 1 : 0;
+            }
+        }
+        return count;
+    }
+
+    List<PlanSummary> summarizeByPlan() {
+        AccountPlan[] plans = AccountPlan.values();
+        int[] accounts = new int[plans.length];
+        int[] activeAccounts = new int[plans.length];
+        long[] balances = new long[plans.length];
+        int remaining = size;
+        Chunk[] current = chunks;
+        for (int c = 0; remaining > 0; c++, remaining -= CHUNK_SIZE) {
+            Chunk chunk = current[c];
+            int length = Math.min(remaining, CHUNK_SIZE);
+            for (int i = 0; i < length; i++) {
+                int plan = chunk.plans[i];
+                if (plan >= 0) {
+                    accounts[plan]++;
+                    activeAccounts[plan] += chunk.active[i] ? 1 : 0;
+                    balances[plan] += chunk.balanceCents[i];
+                }
+            }
+        }
+        List<PlanSummary> summaries = new ArrayList<>(plans.length);
+        for (AccountPlan plan : plans) {
+            int p = plan.ordinal();
+            summaries.add(new PlanSummary(plan, accounts[p], activeAccounts[p], balances[p]));
+        }
+        return summaries;
+    }
+
+    long totalBalanceCents(AccountType type) {
+        byte ordinal = (byte) type.ordinal();
+        int remaining = size;
+        Chunk[] current = chunks;
+        long total = 0;
+        for (int c = 0; remaining > 0; c++, remaining -= CHUNK_SIZE) {
+            Chunk chunk = current[c];
+            int length = Math.min(remaining, CHUNK_SIZE);
+            for (int i = 0; i < length; i++) {
+                total += chunk.types[i] == ordinal ? chunk.balanceCents[i] : 0;
+            }
+        }
+        return total;
+    }
+
+    private static void write(Chunk chunk, int i, Account account) {
+        chunk.withdrawLimitCents[i] = account.getWithdrawLimit() == null ? 0 : Account.toCents(account.getWithdrawLimit());
+        chunk.depositLimitCents[i] = account.getDepositLimit() == null ? 0 : Account.toCents(account.getDepositLimit());
+        chunk.active[i] = account.isActive();
+        chunk.overdraftCounters[i] = account.getOverdraftCounter();
+        // Concurrent updates of one account may publish out of order; re-reading after each write
+        // guarantees the last writer leaves the current balance behind.
+        long balance = account.getBalanceCents();
+        while (true) {
+            chunk.balanceCents[i] = balance;
+            long current = account.getBalanceCents();
+            if (current == balance) {
+                return;
+            }
+            balance = current;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package my.bank.repository;
+
+import my.bank.domain.Transaction;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class AccountTransactionLog {
+    private Transaction[] transactions = new Transaction[8];
+    private long[] timestamps = new long[8];
+    private int size;
+
+    synchronized void add(Transaction transaction) {
+        LocalDateTime timestamp = transaction.getTimestamp();
+        long millis = toEpochMillis(timestamp);
+        int position = size;
+        while (position > 0 && isAfter(position - 1, millis, timestamp)) {
+            position--;
+        }
+        if (position == size && size < transactions.length) {
+            transactions[size] = transaction;
+            timestamps[size] = millis;
+            size++;
+            return;
+        }
+        int capacity = size < transactions.length ? transactions.length : transactions.length * 2;
+        Transaction[] grownTransactions = new Transaction[capacity];
+        long[] grownTimestamps = new long[capacity];
+        System.arraycopy(transactions, 0, grownTransactions, 0, position);
+        System.arraycopy(timestamps, 0, grownTimestamps, 0, position);
+        grownTransactions[position] = transaction;
+        grownTimestamps[position] = millis;
+        System.arraycopy(transactions, position, grownTransactions, position + 1, size - position);
+        System.arraycopy(timestamps, position, grownTimestamps, position + 1, size - position);
+        transactions = grownTransactions;
+        timestamps = grownTimestamps;
+        size++;
+    }
+
+    List<Transaction> getTransactions() {
+        Transaction[] snapshot;
+        int snapshotSize;
+        synchronized (this) {
+            snapshot = transactions;
+            snapshotSize = size;
+        }
+        return view(snapshot, 0, snapshotSize);
+    }
+
+    List<Transaction> getTransactions(LocalDateTime after, LocalDateTime before) {
+        Transaction[] snapshot;
+        long[] snapshotTimestamps;
+        int snapshotSize;
+        synchronized (this) {
+            snapshot = transactions;
+            snapshotTimestamps = timestamps;
+            snapshotSize = size;
+        }
+        int from = lowerBound(snapshotTimestamps, snapshotSize, toEpochMillis(after));
+        while (from < snapshotSize && !snapshot[from].getTimestamp().isAfter(after)) {
+            from++;
+        }
+        int to = lowerBound(snapshotTimestamps, snapshotSize, toEpochMillis(before));
+        while (to < snapshotSize && snapshot[to].getTimestamp().isBefore(before)) {
+            to++;
+        }
+        if (from >= to) {
+            return List.of();
+        }
+        return view(snapshot, from, to);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private boolean isAfter(int index, long millis, LocalDateTime timestamp) {
+        return timestamps[index] > millis
+                || (timestamps[index] == millis && transactions[index].getTimestamp().isAfter(timestamp));
+    }
+
+    private static List<Transaction> view(Transaction[] snapshot, int from, int to) {
+        return Collections.unmodifiableList(Arrays.asList(snapshot).subList(from, to));
+    }
+
+    private static int lowerBound(long[] timestamps, int size, long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[middle] < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1000 + timestamp.getNano() / 1_000_000;
+    }
+}
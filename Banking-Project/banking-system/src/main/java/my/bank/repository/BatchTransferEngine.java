@@ -0,0 +1,352 @@
+package my.bank.repository;
+
+import lombok.SneakyThrows;
+import my.bank.domain.Account;
+import my.bank.domain.Transaction;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.Serial;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+// Runs a file of "sender,receiver,amount" lines. Lines touching a common account end up in the same
+// component and run in file order; independent components run in parallel on a fork-join pool.
+public class BatchTransferEngine implements AutoCloseable {
+    private static final String HEADER = "sender,receiver,amount";
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+    private static final int JOURNAL_CHUNK = 4096;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+
+    // Workers block on the journal's fsync while holding stripe locks, so they get a pool of their own
+    // rather than the common pool.
+    public BatchTransferEngine(AccountRepository accountRepository) {
+        this(accountRepository, new ForkJoinPool(Runtime.getRuntime().availableProcessors()), true);
+    }
+
+    public BatchTransferEngine(AccountRepository accountRepository, ForkJoinPool pool) {
+        this(accountRepository, pool, false);
+    }
+
+    private BatchTransferEngine(AccountRepository accountRepository, ForkJoinPool pool, boolean ownsPool) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = accountRepository.getTransactionRepository();
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+    }
+
+    @SneakyThrows
+    public BatchTransferReport execute(File instructions) {
+        try (BufferedReader reader = Files.newBufferedReader(instructions.toPath(), StandardCharsets.UTF_8)) {
+            return execute(reader);
+        }
+    }
+
+    public BatchTransferReport execute(BufferedReader reader) {
+        Batch batch = Batch.parse(reader);
+        validate(batch);
+        Partition partition = partition(batch);
+        pool.invoke(new TransferTask(batch, partition, 0, partition.components()));
+        try {
+            transactionRepository.saveTransactions();
+        } catch (Exception e) {
+            for (int i = 0; i < batch.size; i++) {
+                failApplied(batch, i, "The transfer was applied but the journal could not be flushed: " + e.getMessage());
+            }
+        }
+        return batch.report;
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    private void validate(Batch batch) {
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.valid[i]) {
+                String error = validate(batch.senders[i], batch.receivers[i], batch.amounts[i]);
+                if (error != null) {
+                    batch.invalidate(i, error);
+                }
+            }
+        }
+    }
+
+    private String validate(int senderAccountNumber, int receiverAccountNumber, double amount) {
+        if (!(amount > 0.0) || Double.isInfinite(amount)) {
+            return "Invalid amount.";
+        }
+        if (senderAccountNumber == receiverAccountNumber) {
+            return "Sender and receiver must be different accounts.";
+        }
+        Account sender = accountRepository.getAccountNumberMap().get(senderAccountNumber);
+        if (sender == null) {
+            return "Invalid sender account Number";
+        }
+        Account receiver = accountRepository.getAccountNumberMap().get(receiverAccountNumber);
+        if (receiver == null) {
+            return "Invalid receiver account Number";
+        }
+        if (!sender.isActive() || !receiver.isActive()) {
+            return "Account " + (sender.isActive() ? receiverAccountNumber : senderAccountNumber) + " is deactivated.";
+        }
+        if (amount > sender.getWithdrawLimit()) {
+            return "Withdraw limit exceeds.";
+        }
+        if (amount > receiver.getDepositLimit()) {
+            return "deposit limit exceeds.";
+        }
+        return null;
+    }
+
+    // Union-find over the accounts of the valid lines, then a stable counting sort of the lines by component.
+    private static Partition partition(Batch batch) {
+        int[] accountNumbers = new int[batch.size * 2];
+        int count = 0;
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.valid[i]) {
+                accountNumbers[count++] = batch.senders[i];
+                accountNumbers[count++] = batch.receivers[i];
+            }
+        }
+        int[] accounts = distinct(accountNumbers, count);
+        int[] parent = new int[accounts.length];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        int[] senderNodes = new int[batch.size];
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.valid[i]) {
+                int sender = Arrays.binarySearch(accounts, batch.senders[i]);
+                int receiver = Arrays.binarySearch(accounts, batch.receivers[i]);
+                senderNodes[i] = sender;
+                union(parent, sender, receiver);
+            }
+        }
+
+        int[] componentOfRoot = new int[accounts.length];
+        Arrays.fill(componentOfRoot, -1);
+        int[] componentOfLine = new int[batch.size];
+        int[] lineCounts = new int[accounts.length + 1];
+        int components = 0;
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.valid[i]) {
+                int root = find(parent, senderNodes[i]);
+                if (componentOfRoot[root] < 0) {
+                    componentOfRoot[root] = components++;
+                }
+                componentOfLine[i] = componentOfRoot[root];
+                lineCounts[componentOfLine[i] + 1]++;
+            }
+        }
+        int[] starts = new int[components + 1];
+        for (int c = 0; c < components; c++) {
+            starts[c + 1] = starts[c] + lineCounts[c + 1];
+        }
+        int[] next = Arrays.copyOf(starts, components);
+        int[] order = new int[starts[components]];
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.valid[i]) {
+                order[next[componentOfLine[i]]++] = i;
+            }
+        }
+        return new Partition(order, starts);
+    }
+
+    private static int[] distinct(int[] values, int count) {
+        int[] sorted = Arrays.copyOf(values, count);
+        Arrays.parallelSort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private static void union(int[] parent, int first, int second) {
+        int firstRoot = find(parent, first);
+        int secondRoot = find(parent, second);
+        if (firstRoot != secondRoot) {
+            parent[Math.max(firstRoot, secondRoot)] = Math.min(firstRoot, secondRoot);
+        }
+    }
+
+    // Moves the money of up to JOURNAL_CHUNK lines and journals their transactions with a single append.
+    // Returns false when that append failed, which stops the worker and leaves its later lines PENDING.
+    private boolean transferChunk(Batch batch, int[] order, int from, int to) {
+        try {
+            accountRepository.transferBatch(journal -> {
+                for (int k = from; k < to; k++) {
+                    transfer(batch, order[k], journal);
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            for (int k = from; k < to; k++) {
+                failApplied(batch, order[k], "The transfer was applied but could not be journaled: " + e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private static void failApplied(Batch batch, int line, String message) {
+        if (batch.report.getStatus(line) == BatchTransferReport.Status.COMPLETED) {
+            batch.report.set(line, BatchTransferReport.Status.FAILED, message);
+        }
+    }
+
+    private void transfer(Batch batch, int line, Consumer<Transaction> journal) {
+        try {
+            Account sender = accountRepository.getAccount(batch.senders[line]);
+            Account receiver = accountRepository.getAccount(batch.receivers[line]);
+            if (accountRepository.transferBetween(sender, receiver, batch.amounts[line], journal)) {
+                batch.report.set(line, BatchTransferReport.Status.COMPLETED, null);
+            } else {
+                batch.report.set(line, BatchTransferReport.Status.REJECTED, "deposit limit exceeds.");
+            }
+        } catch (IllegalArgumentException e) {
+            batch.report.set(line, BatchTransferReport.Status.REJECTED, e.getMessage());
+        } catch (Exception e) {
+            batch.report.set(line, BatchTransferReport.Status.FAILED, e.toString());
+        }
+    }
+
+    private record Partition(int[] order, int[] starts) {
+        int components() {
+            return starts.length - 1;
+        }
+
+        int lines(int fromComponent, int toComponent) {
+            return starts[toComponent] - starts[fromComponent];
+        }
+    }
+
+    private class TransferTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient Batch batch;
+        private final transient Partition partition;
+        private final int fromComponent;
+        private final int toComponent;
+
+        TransferTask(Batch batch, Partition partition, int fromComponent, int toComponent) {
+            this.batch = batch;
+            this.partition = partition;
+            this.fromComponent = fromComponent;
+            this.toComponent = toComponent;
+        }
+
+        @Override
+        protected void compute() {
+            if (toComponent - fromComponent > 1 && partition.lines(fromComponent, toComponent) > SEQUENTIAL_THRESHOLD) {
+                int middle = (fromComponent + toComponent) >>> 1;
+                invokeAll(new TransferTask(batch, partition, fromComponent, middle),
+                        new TransferTask(batch, partition, middle, toComponent));
+                return;
+            }
+            int[] order = partition.order();
+            int end = partition.starts()[toComponent];
+            for (int from = partition.starts()[fromComponent]; from < end; from += JOURNAL_CHUNK) {
+                if (!transferChunk(batch, order, from, Math.min(end, from + JOURNAL_CHUNK))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class Batch {
+        private int size;
+        private int[] lineNumbers = new int[INITIAL_CAPACITY];
+        private int[] senders = new int[INITIAL_CAPACITY];
+        private int[] receivers = new int[INITIAL_CAPACITY];
+        private double[] amounts = new double[INITIAL_CAPACITY];
+        private boolean[] valid = new boolean[INITIAL_CAPACITY];
+        private String[] errors = new String[INITIAL_CAPACITY];
+        private BatchTransferReport report;
+
+        @SneakyThrows
+        static Batch parse(BufferedReader reader) {
+            Batch batch = new Batch();
+            String line;
+            int lineNumber = 0;
+            boolean firstLine = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (firstLine && line.replace(" ", "").equalsIgnoreCase(HEADER)) {
+                    firstLine = false;
+                    continue;
+                }
+                firstLine = false;
+                batch.add(lineNumber, line);
+            }
+            batch.report = new BatchTransferReport(Arrays.copyOf(batch.lineNumbers, batch.size));
+            for (int i = 0; i < batch.size; i++) {
+                if (!batch.valid[i]) {
+                    batch.report.set(i, BatchTransferReport.Status.INVALID, batch.errors[i]);
+                }
+            }
+            batch.errors = null;
+            return batch;
+        }
+
+        private void add(int lineNumber, String line) {
+            if (size == lineNumbers.length) {
+                int capacity = size << 1;
+                lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+                senders = Arrays.copyOf(senders, capacity);
+                receivers = Arrays.copyOf(receivers, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                valid = Arrays.copyOf(valid, capacity);
+                errors = Arrays.copyOf(errors, capacity);
+            }
+            int i = size++;
+            lineNumbers[i] = lineNumber;
+            int firstComma = line.indexOf(',');
+            int secondComma = firstComma < 0 ? -1 : line.indexOf(',', firstComma + 1);
+            if (secondComma < 0 || line.indexOf(',', secondComma + 1) >= 0) {
+                errors[i] = "Expected sender,receiver,amount.";
+                return;
+            }
+            try {
+                senders[i] = Integer.parseInt(line.substring(0, firstComma).trim());
+                receivers[i] = Integer.parseInt(line.substring(firstComma + 1, secondComma).trim());
+                amounts[i] = Double.parseDouble(line.substring(secondComma + 1));
+                valid[i] = true;
+            } catch (NumberFormatException e) {
+                errors[i] = "Invalid number format.";
+            }
+        }
+
+        private void invalidate(int index, String error) {
+            valid[index] = false;
+            report.set(index, BatchTransferReport.Status.INVALID, error);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package my.bank.repository;
+
+import my.bank.utils.AtomicFileWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class BatchTransferReport {
+    public enum Status {
+        PENDING,
+        COMPLETED,
+        INVALID,
+        REJECTED,
+        FAILED
+    }
+
+    private static final Status[] STATUSES = Status.values();
+
+    // One entry per instruction line, kept in primitive columns so that a million line batch stays compact.
+    private final int[] lineNumbers;
+    private final byte[] statuses;
+    private final String[] messages;
+
+    BatchTransferReport(int[] lineNumbers) {
+        this.lineNumbers = lineNumbers;
+        this.statuses = new byte[lineNumbers.length];
+        this.messages = new String[lineNumbers.length];
+        // Lines the engine never reaches must not look settled.
+        Arrays.fill(statuses, (byte) Status.PENDING.ordinal());
+    }
+
+    void set(int index, Status status, String message) {
+        statuses[index] = (byte) status.ordinal();
+        messages[index] = message;
+    }
+
+    public int size() {
+        return lineNumbers.length;
+    }
+
+    public int getLineNumber(int index) {
+        return lineNumbers[index];
+    }
+
+    public Status getStatus(int index) {
+        return STATUSES[statuses[index]];
+    }
+
+    public String getMessage(int index) {
+        return messages[index];
+    }
+
+    public int getCompleted() {
+        return count(Status.COMPLETED);
+    }
+
+    public int getInvalid() {
+        return count(Status.INVALID);
+    }
+
+    public int getRejected() {
+        return count(Status.REJECTED);
+    }
+
+    public int getFailed() {
+        return count(Status.FAILED);
+    }
+
+    public int getPending() {
+        return count(Status.PENDING);
+    }
+
+    public void writeTo(File file) {
+        AtomicFileWriter.write(file, output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            writer.write("line,status,message\n");
+            for (int i = 0; i < lineNumbers.length; i++) {
+                writer.write(Integer.toString(lineNumbers[i]));
+                writer.write(',');
+                writer.write(STATUSES[statuses[i]].name());
+                writer.write(',');
+                if (messages[i] != null) {
+                    writer.write('"');
+                    writer.write(messages[i].replace("\"", "\"\""));
+                    writer.write('"');
+                }
+                writer.write('\n');
+            }
+            writer.flush();
+        });
+    }
+
+    private int count(Status status) {
+        int count = 0;
+        for (byte value : statuses) {
+            if (value == status.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,69 @@
+package my.bank.repository;
+
+import lombok.SneakyThrows;
+import my.bank.utils.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CheckpointScheduler implements AutoCloseable {
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(60);
+    private static final String INTERVAL_PROPERTY = "bank.checkpoint.interval.seconds";
+
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("checkpoint").daemon().factory());
+    private final AtomicLong completedCheckpoints = new AtomicLong();
+
+    public CheckpointScheduler(UserRepository userRepository, AccountRepository accountRepository,
+                               TransactionRepository transactionRepository, Duration interval) {
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive.");
+        }
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.interval = interval;
+    }
+
+    public static Duration configuredInterval() {
+        return Duration.ofSeconds(Long.getLong(INTERVAL_PROPERTY, DEFAULT_INTERVAL.toSeconds()));
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::runCheckpoint, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void checkpoint() {
+        transactionRepository.saveTransactions();
+        accountRepository.checkpoint();
+        userRepository.checkpoint();
+        completedCheckpoints.incrementAndGet();
+    }
+
+    public long getCompletedCheckpoints() {
+        return completedCheckpoints.get();
+    }
+
+    @Override
+    @SneakyThrows
+    public void close() {
+        scheduler.shutdown();
+        scheduler.awaitTermination(interval.toMillis(), TimeUnit.MILLISECONDS);
+        checkpoint();
+    }
+
+    private void runCheckpoint() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            Logger.error("Checkpoint failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package my.bank.repository;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.SneakyThrows;
+import my.bank.domain.Transaction;
+import my.bank.utils.CsvMapperUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+class TransactionJournal {
+    enum FsyncPolicy {
+        ALWAYS,
+        BATCHED,
+        NEVER
+    }
+
+    private static final int TAIL_SCAN_CHUNK = 4096;
+
+    private final FileChannel channel;
+    private final ObjectWriter rowWriter;
+    private final byte[] header;
+    private final FsyncPolicy fsyncPolicy;
+    private final int batchSize;
+
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendedRecords;
+    private volatile long committedRecords;
+
+    @SneakyThrows
+    TransactionJournal(File dataSource, FsyncPolicy fsyncPolicy, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        this.fsyncPolicy = fsyncPolicy;
+        this.batchSize = batchSize;
+        this.rowWriter = CsvMapperUtils.rowWriterFor(Transaction.class);
+        this.header = (String.join(",", CsvMapperUtils.TRANSACTION_SCHEMA.getColumnNames()) + "\n").getBytes(StandardCharsets.UTF_8);
+        this.channel = FileChannel.open(dataSource.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        repairTail(channel, header);
+    }
+
+    @SneakyThrows
+    void append(Transaction transaction) {
+        byte[] row = rowWriter.writeValueAsBytes(transaction);
+        long sequence;
+        synchronized (pending) {
+            pending.write(row);
+            sequence = ++appendedRecords;
+        }
+        if (fsyncPolicy == FsyncPolicy.ALWAYS || sequence - committedRecords >= batchSize) {
+            commit(sequence, fsyncPolicy != FsyncPolicy.NEVER);
+        }
+    }
+
+    @SneakyThrows
+    void appendAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream rows = new ByteArrayOutputStream(transactions.size() * 64);
+        for (Transaction transaction : transactions) {
+            rows.write(rowWriter.writeValueAsBytes(transaction));
+        }
+        long sequence;
+        synchronized (pending) {
+            rows.writeTo(pending);
+            appendedRecords += transactions.size();
+            sequence = appendedRecords;
+        }
+        if (fsyncPolicy == FsyncPolicy.ALWAYS || sequence - committedRecords >= batchSize) {
+            commit(sequence, fsyncPolicy != FsyncPolicy.NEVER);
+        }
+    }
+
+    void flush() {
+        long sequence;
+        synchronized (pending) {
+            sequence = appendedRecords;
+        }
+        commit(sequence, fsyncPolicy != FsyncPolicy.NEVER);
+    }
+
+    @SneakyThrows
+    void reset() {
+        commitLock.lock();
+        try {
+            synchronized (pending) {
+                pending.reset();
+                committedRecords = appendedRecords;
+            }
+            channel.truncate(0);
+            append(channel, header);
+            channel.force(false);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    @SneakyThrows
+    void close() {
+        flush();
+        channel.close();
+    }
+
+    @SneakyThrows
+    private void commit(long sequence, boolean force) {
+        commitLock.lock();
+        try {
+            if (committedRecords >= sequence) {
+                return;
+            }
+            byte[] batch;
+            long batchEnd;
+            synchronized (pending) {
+                batch = pending.toByteArray();
+                batchEnd = appendedRecords;
+                pending.reset();
+            }
+            append(channel, batch);
+            if (force) {
+                channel.force(false);
+            }
+            committedRecords = batchEnd;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    static void append(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long position = channel.size();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    static void repairTail(FileChannel channel, byte[] header) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            append(channel, header);
+            channel.force(false);
+            return;
+        }
+        long end = size;
+        ByteBuffer chunk = ByteBuffer.allocate(TAIL_SCAN_CHUNK);
+        while (end > 0) {
+            long start = Math.max(0, end - TAIL_SCAN_CHUNK);
+            chunk.clear().limit((int) (end - start));
+            while (chunk.hasRemaining()) {
+                channel.read(chunk, start + chunk.position());
+            }
+            for (int i = chunk.position() - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    long validSize = start + i + 1;
+                    if (validSize < size) {
+                        channel.truncate(validSize);
+                        channel.force(false);
+                    }
+                    return;
+                }
+            }
+            end = start;
+        }
+        channel.truncate(0);
+        append(channel, header);
+        channel.force(false);
+    }
+}
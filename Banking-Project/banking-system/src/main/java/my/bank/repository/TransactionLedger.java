@@ -0,0 +1,366 @@
+package my.bank.repository;
+
+import lombok.SneakyThrows;
+import my.bank.domain.Transaction;
+import my.bank.domain.TransactionType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class TransactionLedger {
+    private static final int MAGIC = 0x424C4447;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+
+    static final int RECORD_SIZE = 21;
+    private static final int ACCOUNT_NUMBER_OFFSET = 0;
+    private static final int TIMESTAMP_OFFSET = 4;
+    private static final int TYPE_OFFSET = 12;
+    private static final int AMOUNT_OFFSET = 13;
+
+    private static final int SEGMENT_SHIFT = 18;
+    private static final int RECORDS_PER_SEGMENT = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = RECORDS_PER_SEGMENT - 1;
+    private static final long SEGMENT_SIZE = (long) RECORDS_PER_SEGMENT * RECORD_SIZE;
+
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final TransactionJournal.FsyncPolicy fsyncPolicy;
+    private final int batchSize;
+    private volatile MappedByteBuffer[] segments;
+    private final Map<Integer, AccountRecords> accountRecordsMap = new ConcurrentHashMap<>();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private volatile int size;
+    private volatile int committedRecords;
+
+    private TransactionLedger(FileChannel channel, TransactionJournal.FsyncPolicy fsyncPolicy, int batchSize)
+            throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        this.channel = channel;
+        this.fsyncPolicy = fsyncPolicy;
+        this.batchSize = batchSize;
+        boolean isNew = channel.size() < HEADER_SIZE;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (isNew) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(COUNT_OFFSET, 0);
+        } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a transaction ledger file.");
+        }
+        long recordCount = header.getLong(COUNT_OFFSET);
+        if (recordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ledger has too many records: " + recordCount);
+        }
+        this.size = (int) recordCount;
+        this.committedRecords = size;
+        this.segments = new MappedByteBuffer[0];
+        ensureCapacity(size);
+        indexRecords();
+    }
+
+    public static TransactionLedger open(File file) {
+        return open(file, TransactionJournal.FsyncPolicy.ALWAYS, 1);
+    }
+
+    @SneakyThrows
+    static TransactionLedger open(File file, TransactionJournal.FsyncPolicy fsyncPolicy, int batchSize) {
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new TransactionLedger(channel, fsyncPolicy, batchSize);
+    }
+
+    @SneakyThrows
+    public static long convertFromCsv(File csvFile, File ledgerFile) {
+        File temporaryFile = new File(ledgerFile.getPath() + ".tmp");
+        Files.deleteIfExists(temporaryFile.toPath());
+        TransactionLedger ledger = open(temporaryFile, TransactionJournal.FsyncPolicy.NEVER, Integer.MAX_VALUE);
+        try {
+            TransactionRepository.forEachTransaction(csvFile, ledger::append);
+        } finally {
+            ledger.close();
+        }
+        Files.move(temporaryFile.toPath(), ledgerFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return ledger.size();
+    }
+
+    public void append(Transaction transaction) {
+        int sequence;
+        synchronized (this) {
+            sequence = write(transaction);
+        }
+        commitIfDue(sequence);
+    }
+
+    // Writes the records back to back and commits them together, so the batch costs at most one force.
+    public void appendAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        int sequence = 0;
+        synchronized (this) {
+            for (Transaction transaction : transactions) {
+                sequence = write(transaction);
+            }
+        }
+        commitIfDue(sequence);
+    }
+
+    private int write(Transaction transaction) {
+        int index = size;
+        ensureCapacity(index + 1);
+        MappedByteBuffer segment = segments[index >>> SEGMENT_SHIFT];
+        int offset = (index & SEGMENT_MASK) * RECORD_SIZE;
+        segment.putInt(offset + ACCOUNT_NUMBER_OFFSET, transaction.getAccountNumber());
+        segment.putLong(offset + TIMESTAMP_OFFSET, toEpochNanos(transaction.getTimestamp()));
+        segment.put(offset + TYPE_OFFSET, (byte) transaction.getType().ordinal());
+        segment.putLong(offset + AMOUNT_OFFSET, Math.round(transaction.getAmount() * 100));
+        index(transaction.getAccountNumber(), index);
+        size = index + 1;
+        return size;
+    }
+
+    private void commitIfDue(int sequence) {
+        if (fsyncPolicy == TransactionJournal.FsyncPolicy.ALWAYS || sequence - committedRecords >= batchSize) {
+            commit(sequence, fsyncPolicy != TransactionJournal.FsyncPolicy.NEVER);
+        }
+    }
+
+    public List<Transaction> getTransactions(int accountNumber) {
+        AccountRecords records = accountRecordsMap.get(accountNumber);
+        if (records == null) {
+            return List.of();
+        }
+        synchronized (records) {
+            return new RecordList(records.indexes, 0, records.size);
+        }
+    }
+
+    public List<Transaction> getTransactions(int accountNumber, LocalDateTime after, LocalDateTime before) {
+        AccountRecords records = accountRecordsMap.get(accountNumber);
+        if (records == null) {
+            return List.of();
+        }
+        int[] indexes;
+        int recordCount;
+        synchronized (records) {
+            indexes = records.indexes;
+            recordCount = records.size;
+        }
+        int from = upperBound(indexes, recordCount, toEpochNanos(after));
+        int to = lowerBound(indexes, recordCount, toEpochNanos(before));
+        if (from >= to) {
+            return List.of();
+        }
+        return new RecordList(indexes, from, to);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void flush() {
+        commit(size, fsyncPolicy != TransactionJournal.FsyncPolicy.NEVER);
+    }
+
+    void reset() {
+        commitLock.lock();
+        try {
+            synchronized (this) {
+                header.putLong(COUNT_OFFSET, 0);
+                header.force();
+                accountRecordsMap.clear();
+                size = 0;
+                committedRecords = 0;
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    @SneakyThrows
+    public void close() {
+        commit(size, true);
+        channel.close();
+    }
+
+    // The header count only moves past records that are already on disk: with mmap the kernel may write pages
+    // back in any order, so the records are forced before the count that makes them visible.
+    private void commit(int sequence, boolean force) {
+        commitLock.lock();
+        try {
+            if (committedRecords >= sequence) {
+                return;
+            }
+            int target = size;
+            if (force) {
+                forceRecords(committedRecords, target);
+            }
+            header.putLong(COUNT_OFFSET, target);
+            if (force) {
+                header.force();
+            }
+            committedRecords = target;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void forceRecords(int from, int to) {
+        MappedByteBuffer[] current = segments;
+        while (from < to) {
+            int segmentIndex = from >>> SEGMENT_SHIFT;
+            int segmentEnd = Math.min(to, (segmentIndex + 1) << SEGMENT_SHIFT);
+            int offset = (from & SEGMENT_MASK) * RECORD_SIZE;
+            current[segmentIndex].force(offset, (segmentEnd - from) * RECORD_SIZE);
+            from = segmentEnd;
+        }
+    }
+
+    private Transaction read(int index) {
+        MappedByteBuffer segment = segments[index >>> SEGMENT_SHIFT];
+        int offset = (index & SEGMENT_MASK) * RECORD_SIZE;
+        Transaction transaction = new Transaction();
+        transaction.setAccountNumber(segment.getInt(offset + ACCOUNT_NUMBER_OFFSET));
+        transaction.setTimestamp(fromEpochNanos(segment.getLong(offset + TIMESTAMP_OFFSET)));
+        transaction.setType(TRANSACTION_TYPES[segment.get(offset + TYPE_OFFSET)]);
+        transaction.setAmount(segment.getLong(offset + AMOUNT_OFFSET) / 100.0);
+        return transaction;
+    }
+
+    private long readTimestamp(int index) {
+        return segments[index >>> SEGMENT_SHIFT].getLong((index & SEGMENT_MASK) * RECORD_SIZE + TIMESTAMP_OFFSET);
+    }
+
+    private void indexRecords() {
+        for (int index = 0; index < size; index++) {
+            MappedByteBuffer segment = segments[index >>> SEGMENT_SHIFT];
+            index(segment.getInt((index & SEGMENT_MASK) * RECORD_SIZE + ACCOUNT_NUMBER_OFFSET), index);
+        }
+    }
+
+    private void index(int accountNumber, int index) {
+        AccountRecords records = accountRecordsMap.computeIfAbsent(accountNumber, number -> new AccountRecords());
+        long timestamp = readTimestamp(index);
+        synchronized (records) {
+            int position = records.size;
+            while (position > 0 && readTimestamp(records.indexes[position - 1]) > timestamp) {
+                position--;
+            }
+            records.insert(position, index);
+        }
+    }
+
+    private int lowerBound(int[] indexes, int recordCount, long nanos) {
+        int low = 0;
+        int high = recordCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (readTimestamp(indexes[middle]) < nanos) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(int[] indexes, int recordCount, long nanos) {
+        int low = 0;
+        int high = recordCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (readTimestamp(indexes[middle]) <= nanos) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @SneakyThrows
+    private void ensureCapacity(int records) {
+        int requiredSegments = (records + RECORDS_PER_SEGMENT - 1) >>> SEGMENT_SHIFT;
+        MappedByteBuffer[] current = segments;
+        if (requiredSegments <= current.length) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(current, requiredSegments);
+        for (int i = current.length; i < requiredSegments; i++) {
+            grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + i * SEGMENT_SIZE, SEGMENT_SIZE);
+        }
+        segments = grown;
+    }
+
+    static long toEpochNanos(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+    }
+
+    static LocalDateTime fromEpochNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static class AccountRecords {
+        private int[] indexes = new int[8];
+        private int size;
+
+        private void insert(int position, int index) {
+            if (position == size && size < indexes.length) {
+                indexes[size++] = index;
+                return;
+            }
+            int[] grown = new int[size < indexes.length ? indexes.length : indexes.length * 2];
+            System.arraycopy(indexes, 0, grown, 0, position);
+            grown[position] = index;
+            System.arraycopy(indexes, position, grown, position + 1, size - position);
+            indexes = grown;
+            size++;
+        }
+    }
+
+    private class RecordList extends AbstractList<Transaction> {
+        private final int[] indexes;
+        private final int from;
+        private final int to;
+
+        private RecordList(int[] indexes, int from, int to) {
+            this.indexes = indexes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return read(indexes[from + index]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
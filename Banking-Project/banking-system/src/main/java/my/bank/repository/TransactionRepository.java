@@ -1,7 +1,6 @@
 package my.bank.repository;
 
-import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.databind.MappingIterator;
 import lombok.SneakyThrows;
 import my.bank.domain.Account;
 import my.bank.domain.Transaction;
@@ -11,35 +10,61 @@ import my.bank.utils.CsvMapperUtils;
 import java.io.File;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class TransactionRepository {
+    private static final TransactionJournal.FsyncPolicy DEFAULT_FSYNC_POLICY = TransactionJournal.FsyncPolicy.ALWAYS;
+    private static final int DEFAULT_BATCH_SIZE = 1;
+    private static final String LEDGER_EXTENSION = ".ledger";
+
     private final File dataSource;
-    private final List<Transaction> transactions;
-    private final CsvSchema writerSchema = CsvSchema.builder()
-            .addColumn("accountNumber")
-            .addColumn("timeStamp")
-            .addColumn("type")
-            .addColumn("amount")
-            .setUseHeader(true)
-            .build();
-    private final CsvSchema readerSchema = CsvMapperUtils.getInstance().schemaFor(Transaction.class)
-            .withHeader()
-            .withColumnReordering(true);
+    private final AtomicInteger size = new AtomicInteger();
+    private final Map<Integer, AccountTransactionLog> accountTransactionsMap = new ConcurrentHashMap<>();
+
+    private final TransactionJournal journal;
+    private final TransactionLedger ledger;
 
     private static TransactionRepository transactionRepositoryInstance = null;
 
-    private TransactionRepository(File dataSource) {
+    TransactionRepository(File dataSource) {
+        this(dataSource, DEFAULT_FSYNC_POLICY, DEFAULT_BATCH_SIZE);
+    }
+
+    TransactionRepository(File dataSource, TransactionJournal.FsyncPolicy fsyncPolicy, int batchSize) {
         this.dataSource = dataSource;
-        this.transactions = new ArrayList<>(loadTransactions());
+        if (dataSource.getName().endsWith(LEDGER_EXTENSION)) {
+            this.ledger = TransactionLedger.open(dataSource, fsyncPolicy, batchSize);
+            this.journal = null;
+            return;
+        }
+        this.ledger = null;
+        this.journal = new TransactionJournal(dataSource, fsyncPolicy, batchSize);
+        forEachTransaction(dataSource, this::indexTransaction);
     }
 
     void clear() {
-        transactions.clear();
+        if (ledger != null) {
+            ledger.reset();
+            return;
+        }
+        size.set(0);
+        accountTransactionsMap.clear();
+        journal.reset();
+    }
+
+    void close() {
+        if (ledger != null) {
+            ledger.close();
+            return;
+        }
+        journal.close();
     }
 
-    public static TransactionRepository getInstance(File dataSource) {
+    public static synchronized TransactionRepository getInstance(File dataSource) {
         if (transactionRepositoryInstance == null) {
             return transactionRepositoryInstance = new TransactionRepository(dataSource);
         }
@@ -47,52 +72,92 @@ public class TransactionRepository {
     }
 
     @SneakyThrows
-    private List<Transaction> loadTransactions() {
-        ObjectReader reader = CsvMapperUtils.getInstance()
-                .reader(readerSchema.withHeader())
-                .forType(Transaction.class);
+    public static void forEachTransaction(File dataSource, Consumer<Transaction> consumer) {
+        try (MappingIterator<Transaction> rows = CsvMapperUtils.readerFor(Transaction.class).readValues(dataSource)) {
+            while (rows.hasNext()) {
+                consumer.accept(rows.next());
+            }
+        }
+    }
 
-        return reader.readValues(dataSource).readAll()
-                .stream().filter(o -> o instanceof Transaction)
-                .map(o -> (Transaction) o)
-                .toList();
+    public static TransactionSummary summarize(File dataSource) {
+        TransactionSummary summary = new TransactionSummary();
+        forEachTransaction(dataSource, summary::add);
+        return summary;
+    }
+
+    private void indexTransaction(Transaction transaction) {
+        accountTransactionsMap.computeIfAbsent(transaction.getAccountNumber(), accountNumber -> new AccountTransactionLog())
+                .add(transaction);
+        size.incrementAndGet();
     }
 
-    @SneakyThrows
     public List<Transaction> getTransactions(Account account) {
-        return transactions.stream()
-                .filter(transaction -> transaction.getAccountNumber().equals(account.getAccountNumber()))
-                .toList();
+        if (ledger != null) {
+            return ledger.getTransactions(account.getAccountNumber());
+        }
+        AccountTransactionLog accountTransactions = accountTransactionsMap.get(account.getAccountNumber());
+        if (accountTransactions == null) {
+            return List.of();
+        }
+        return accountTransactions.getTransactions();
     }
 
-    @SneakyThrows
     public List<Transaction> getTransactions(Account account, LocalDate fromDate, LocalDate toDate) {
-        LocalDateTime fromDateTime = fromDate.atStartOfDay();
-        LocalDateTime toDateTime = toDate.atStartOfDay();
-        return getTransactions(account)
-                .stream()
-                .filter(transaction -> transaction.getTimestamp().isAfter(fromDateTime) && transaction.getTimestamp().isBefore(toDateTime))
-                .toList();
+        if (ledger != null) {
+            return ledger.getTransactions(account.getAccountNumber(), fromDate.atStartOfDay(), toDate.atStartOfDay());
+        }
+        AccountTransactionLog accountTransactions = accountTransactionsMap.get(account.getAccountNumber());
+        if (accountTransactions == null) {
+            return List.of();
+        }
+        return accountTransactions.getTransactions(fromDate.atStartOfDay(), toDate.atStartOfDay());
     }
 
     public void addTransaction(Account account, TransactionType transactionType, double amount) {
+        addTransaction(newTransaction(account, transactionType, amount));
+    }
+
+    public void addTransaction(Transaction transaction) {
+        if (ledger != null) {
+            ledger.append(transaction);
+            return;
+        }
+        indexTransaction(transaction);
+        journal.append(transaction);
+    }
+
+    // Journals the whole batch as one write, so a batch costs a single fsync instead of one per transaction.
+    public void addTransactions(List<Transaction> transactions) {
+        if (ledger != null) {
+            ledger.appendAll(transactions);
+            return;
+        }
+        transactions.forEach(this::indexTransaction);
+        journal.appendAll(transactions);
+    }
+
+    static Transaction newTransaction(Account account, TransactionType transactionType, double amount) {
         Transaction transaction = new Transaction();
         transaction.setAccountNumber(account.getAccountNumber());
         transaction.setTimestamp(LocalDateTime.now());
         transaction.setType(transactionType);
         transaction.setAmount(amount);
-        transactions.add(transaction);
-
+        return transaction;
     }
 
-    @SneakyThrows
     public void saveTransactions() {
-        CsvMapperUtils.getInstance()
-                .writer(writerSchema)
-                .writeValue(dataSource, transactions);
+        if (ledger != null) {
+            ledger.flush();
+            return;
+        }
+        journal.flush();
     }
 
     int getSize() {
-        return transactions.size();
+        if (ledger != null) {
+            return ledger.size();
+        }
+        return size.get();
     }
 }
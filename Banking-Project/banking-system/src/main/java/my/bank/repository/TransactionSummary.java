@@ -0,0 +1,63 @@
+package my.bank.repository;
+
+import lombok.Getter;
+import my.bank.domain.Transaction;
+import my.bank.domain.TransactionType;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Getter
+public class TransactionSummary {
+    private long transactionCount;
+    private double totalCredits;
+    private double totalDebits;
+    private final Map<Integer, Double> balanceByAccount = new HashMap<>();
+    private final Map<LocalDate, DailyTotal> dailyTotals = new TreeMap<>();
+
+    void add(Transaction transaction) {
+        double signedAmount = transaction.getType() == TransactionType.CREDIT
+                ? transaction.getAmount()
+                : -transaction.getAmount();
+        transactionCount++;
+        if (transaction.getType() == TransactionType.CREDIT) {
+            totalCredits += transaction.getAmount();
+        } else {
+            totalDebits += transaction.getAmount();
+        }
+        balanceByAccount.merge(transaction.getAccountNumber(), signedAmount, Double::sum);
+        dailyTotals.computeIfAbsent(transaction.getTimestamp().toLocalDate(), date -> new DailyTotal())
+                .add(transaction.getType(), transaction.getAmount());
+    }
+
+    public double getBalance(int accountNumber) {
+        return balanceByAccount.getOrDefault(accountNumber, 0.0);
+    }
+
+    public Map<Integer, Double> getBalanceByAccount() {
+        return Collections.unmodifiableMap(balanceByAccount);
+    }
+
+    public Map<LocalDate, DailyTotal> getDailyTotals() {
+        return Collections.unmodifiableMap(dailyTotals);
+    }
+
+    @Getter
+    public static class DailyTotal {
+        private long count;
+        private double credits;
+        private double debits;
+
+        private void add(TransactionType type, double amount) {
+            count++;
+            if (type == TransactionType.CREDIT) {
+                credits += amount;
+            } else {
+                debits += amount;
+            }
+        }
+    }
+}
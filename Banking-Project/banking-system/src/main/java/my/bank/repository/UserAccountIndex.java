@@ -0,0 +1,91 @@
+package my.bank.repository;
+
+import my.bank.utils.IntObjectMap;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+class UserAccountIndex {
+    private static final int[] NO_ACCOUNTS = new int[0];
+    private static final int INITIAL_CAPACITY = 2;
+
+    // Account numbers of one user in opening order; readers take size before the array, so an append is only
+    // visible once its slot has been written.
+    private static final class AccountNumbers {
+        private volatile int[] numbers = new int[INITIAL_CAPACITY];
+        private volatile int size;
+
+        void add(int accountNumber) {
+            int[] current = numbers;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length << 1);
+                numbers = current;
+            }
+            current[size] = accountNumber;
+            size = size + 1;
+        }
+
+        int get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IllegalArgumentException("Invalid account selection.");
+            }
+            return numbers[index];
+        }
+
+        int[] toArray() {
+            int count = size;
+            return Arrays.copyOf(numbers, count);
+        }
+    }
+
+    private final IntObjectMap<AccountNumbers> accountsByUser = new IntObjectMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile int totalAccounts;
+
+    void add(int userId, int accountNumber) {
+        writeLock.lock();
+        try {
+            AccountNumbers accountNumbers = accountsByUser.get(userId);
+            if (accountNumbers == null) {
+                accountNumbers = new AccountNumbers();
+                accountsByUser.put(userId, accountNumbers);
+            }
+            accountNumbers.add(accountNumber);
+            totalAccounts = totalAccounts + 1;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    int count(int userId) {
+        AccountNumbers accountNumbers = accountsByUser.get(userId);
+        return accountNumbers == null ? 0 : accountNumbers.size;
+    }
+
+    int accountNumberAt(int userId, int index) {
+        AccountNumbers accountNumbers = accountsByUser.get(userId);
+        if (accountNumbers == null) {
+            throw new IllegalArgumentException("No account found.");
+        }
+        return accountNumbers.get(index);
+    }
+
+    int[] accountNumbers(int userId) {
+        AccountNumbers accountNumbers = accountsByUser.get(userId);
+        return accountNumbers == null ? NO_ACCOUNTS : accountNumbers.toArray();
+    }
+
+    int size() {
+        return totalAccounts;
+    }
+
+    void clear() {
+        writeLock.lock();
+        try {
+            accountsByUser.clear();
+            totalAccounts = 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
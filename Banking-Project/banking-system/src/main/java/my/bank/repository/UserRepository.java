@@ -1,60 +1,71 @@
 package my.bank.repository;
 
-import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.dataformat.csv.CsvMapper;
-import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import my.bank.domain.User;
 import my.bank.domain.UserType;
 import my.bank.exception.*;
+import my.bank.security.LoginThrottle;
+import my.bank.utils.AtomicFileWriter;
+import my.bank.utils.CsvMapperUtils;
+import my.bank.validation.ValidationResult;
+import my.bank.validation.Validators;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class UserRepository {
-    private final Map<String, User> userNameToUserMap = new HashMap<>();
-    private final Map<Integer, User> userIdToUserMap = new HashMap<>();
-    private int idCounter;
+    private final UserStore userStore = new UserStore();
+    private final UserSearchIndex searchIndex = new UserSearchIndex();
+    private final AtomicInteger idCounter = new AtomicInteger();
+    private final Set<Integer> changedUsers = ConcurrentHashMap.newKeySet();
     private final File dataSource;
-    private static final int MAX_LOGIN_ATTEMPTS = 3;
+    private final LoginThrottle loginThrottle;
 
     private static UserRepository userRepositoryInstance = null;
 
-    private UserRepository(File dataSource) {
+    UserRepository(File dataSource) {
+        this(dataSource, new LoginThrottle());
+    }
+
+    UserRepository(File dataSource, LoginThrottle loginThrottle) {
         this.dataSource = dataSource;
+        this.loginThrottle = loginThrottle;
         populateUsersList();
     }
 
     void clear() {
-        userNameToUserMap.clear();
-        userIdToUserMap.clear();
+        userStore.clear();
+        searchIndex.clear();
+        changedUsers.clear();
+        loginThrottle.clear();
     }
 
-    public static UserRepository getInstance(File datasource) {
-        return Objects.requireNonNullElseGet(userRepositoryInstance, () -> userRepositoryInstance = new UserRepository(datasource));
+    public static synchronized UserRepository getInstance(File datasource) {
+        if (userRepositoryInstance == null) {
+            userRepositoryInstance = new UserRepository(datasource);
+        }
+        return userRepositoryInstance;
     }
 
     public int getSize() {
-        return userNameToUserMap.size();
+        return userStore.size();
     }
 
     public void populateUsersList() {
-        CsvMapper csvMapper = new CsvMapper();
-        CsvSchema schema = csvMapper.schemaFor(User.class)
-                .withHeader()
-                .withColumnReordering(true);
-        ObjectReader reader = csvMapper.readerFor(User.class).with(schema);
-
         try {
-            reader.readValues(dataSource).readAll().stream().map(o -> (User) o)
+            CsvMapperUtils.readerFor(User.class).readValues(dataSource).readAll().stream().map(o -> (User) o)
                     .forEach(user -> {
-                        userNameToUserMap.put(user.getUsername(), user);
-                        userIdToUserMap.put(user.getId(), user);
+                        if (userStore.add(user)) {
+                            searchIndex.add(user);
+                            trackChanges(user);
+                        }
                     });
 
-            idCounter = userIdToUserMap.keySet().stream().max(Integer::compareTo).orElse(0);
+            idCounter.set(userStore.getMaxId());
 
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -62,27 +73,40 @@ public class UserRepository {
     }
 
     public void writeUsersInFile() {
-        CsvMapper csvMapper = new CsvMapper();
-        CsvSchema schema = CsvSchema.builder()
-                .addColumn("id")
-                .addColumn("username")
-                .addColumn("password")
-                .addColumn("firstName")
-                .addColumn("lastName")
-                .addColumn("type")
-                .addColumn("isActive")
-                .setUseHeader(true)
-                .build();
+        List<Integer> written = new ArrayList<>(changedUsers);
+        changedUsers.removeAll(written);
+        List<User> snapshot = userStore.values();
         try {
-            csvMapper.writer(schema).writeValue(dataSource, userNameToUserMap.values());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            AtomicFileWriter.write(dataSource, output -> CsvMapperUtils.writerFor(User.class).writeValue(output, snapshot));
+        } catch (Exception e) {
+            // keep the changes pending so the next checkpoint writes them again
+            changedUsers.addAll(written);
+            throw e;
+        }
+    }
+
+    public void checkpoint() {
+        if (!changedUsers.isEmpty()) {
+            writeUsersInFile();
         }
     }
 
+    int getPendingChanges() {
+        return changedUsers.size();
+    }
+
+    private void trackChanges(User user) {
+        user.setChangeListener(changed -> changedUsers.add(changed.getId()));
+    }
+
     public User signUp(String username, String password, String firstName, String lastName) {
         User user = createNewUser(username, password, firstName, lastName);
-        userNameToUserMap.put(user.getUsername(), user);
+        if (!userStore.add(user)) {
+            throw new SignupFailedException("Username is already exists");
+        }
+        searchIndex.add(user);
+        trackChanges(user);
+        changedUsers.add(user.getId());
         return user;
     }
 
@@ -91,24 +115,27 @@ public class UserRepository {
         validatePassword(password);
         validateFirstName(firstName);
         validateLastName(lastName);
-        User user = new User(++idCounter, username, password, firstName, lastName);
+        User user = new User(idCounter.incrementAndGet(), username, password, firstName, lastName);
         user.setType(UserType.CUSTOMER);
         user.setActive(true);
         return user;
     }
 
     public void validateUsername(String username, boolean isNewUser) {
-        if (isNewUser && userNameToUserMap.containsKey(username)) {
-            throw new SignupFailedException("Username is already exists");
+        ValidationResult result = Validators.validateUsername(username);
+        if (!result.isValid()) {
+            throw new InvalidUserNameException(result.message());
         }
-        if (username == null || username.isBlank() || !username.matches("^[^A-Z]*$")) {
-            throw new InvalidUserNameException("Username is not valid. It shoudn't contain any Uppercase letters.");
+        if (isNewUser && userStore.getByUsername(username) != null) {
+            throw new SignupFailedException("Username is already exists");
         }
     }
 
     public void validatePassword(String password) {
-        if (!User.isValidPassword(password))
-            throw new InvalidPasswordException("Password is not valid.");
+        ValidationResult result = Validators.validatePassword(password);
+        if (!result.isValid()) {
+            throw new InvalidPasswordException(result.message());
+        }
     }
 
 
@@ -125,35 +152,66 @@ public class UserRepository {
     }
 
     public User login(String username, String password) {
-        if (userNameToUserMap.containsKey(username)) {
-            User user = userNameToUserMap.get(username);
-            if (!user.isActive()) {
-                throw new LoginFailedException("This user is already deactivated!");
-            }
-            if (user.getLoginFailedAttempts() < MAX_LOGIN_ATTEMPTS) {
-                if (user.matchPassword(password)) {
-                    user.setLoginFailedAttempts(0);
-                    return user;
-                }
-                user.setLoginFailedAttempts(user.getLoginFailedAttempts() + 1);
-                throw new LoginFailedException("Login failed.");
-            }
+        return login(username, password, null);
+    }
+
+    public User login(String username, String password, String source) {
+        if (loginThrottle.isUserLocked(username)) {
             throw new UserLockedException();
         }
-        throw new LoginFailedException("Username doesn't exist!");
+        if (loginThrottle.isSourceLocked(source)) {
+            throw new LoginFailedException("Too many failed login attempts. Please try again later.");
+        }
+        User user = userStore.getByUsername(username);
+        if (user == null) {
+            loginThrottle.recordFailure(null, source);
+            throw new LoginFailedException("Username doesn't exist!");
+        }
+        if (!user.isActive()) {
+            throw new LoginFailedException("This user is already deactivated!");
+        }
+        if (user.matchPassword(password)) {
+            loginThrottle.recordSuccess(username);
+            return user;
+        }
+        loginThrottle.recordFailure(username, source);
+        throw new LoginFailedException("Login failed.");
+    }
+
+    // Names are part of the search keys, so a rename takes the user out of the index and puts it back under the new name.
+    public void renameUser(User user, String firstName, String lastName) {
+        synchronized (user) {
+            searchIndex.remove(user);
+            try {
+                user.SetName(firstName, lastName);
+            } finally {
+                searchIndex.add(user);
+            }
+        }
+    }
+
+    public UserSearchIndex.Page searchUsers(UserSearchIndex.Field field, String prefix, UserSearchIndex.Cursor after,
+                                              int limit) {
+        return field == null
+                ? searchIndex.searchAnyField(prefix, after, limit)
+                : searchIndex.search(field, prefix, after, limit);
+    }
+
+    public LoginThrottle getLoginThrottle() {
+        return loginThrottle;
     }
 
     public void logout(String username) {
-        if (!userNameToUserMap.containsKey(username)) {
+        if (userStore.getByUsername(username) == null) {
             throw new LogoutFailedException("Invalid username.");
         }
     }
 
     public void resetPassword(String username, String oldPassword, String newPassword) {
-        if (!userNameToUserMap.containsKey(username)) {
+        User user = userStore.getByUsername(username);
+        if (user == null) {
             throw new IllegalArgumentException("User not found.");
         }
-        User user = userNameToUserMap.get(username);
         if (!user.matchPassword(oldPassword)) {
             throw new IllegalArgumentException("Old password doesn't match!");
         }
@@ -161,14 +219,15 @@ public class UserRepository {
     }
 
     public String getUserInfo(int userId) {
-        if (!userIdToUserMap.containsKey(userId)) {
+        User user = userStore.getById(userId);
+        if (user == null) {
             throw new IllegalArgumentException("UserId not found.");
         }
-        return userIdToUserMap.get(userId).getFirstName() + " " + userIdToUserMap.get(userId).getLastName();
+        return user.getFirstName() + " " + user.getLastName();
     }
 
     public void deactivateUser(User user) {
-        if (!userNameToUserMap.containsKey(user.getUsername())) {
+        if (userStore.getByUsername(user.getUsername()) == null) {
             throw new IllegalArgumentException("Invalid User.");
         }
         user.setActive(false);
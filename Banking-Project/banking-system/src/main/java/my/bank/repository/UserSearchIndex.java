@@ -0,0 +1,135 @@
+package my.bank.repository;
+
+import my.bank.domain.User;
+import my.bank.domain.UserType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+public class UserSearchIndex {
+    public enum Field {
+        USERNAME(User::getUsername),
+        FIRST_NAME(User::getFirstName),
+        LAST_NAME(User::getLastName);
+
+        private final Function<User, String> extractor;
+
+        Field(Function<User, String> extractor) {
+            this.extractor = extractor;
+        }
+    }
+
+    // Points at the last returned key, so the next page resumes with a single seek into the index.
+    public record Cursor(Field field, String key) {
+    }
+
+    public record Page(List<User> users, Cursor next) {
+        public boolean hasMore() {
+            return next != null;
+        }
+    }
+
+    // Keys are "<lower-cased term>\0<user id>" so that equal names of different users stay distinct
+    // while a prefix still maps to one contiguous key range.
+    private static final char SEPARATOR = '\u0000';
+
+    private final Map<Field, NavigableMap<String, User>> indexes = new EnumMap<>(Field.class);
+
+    public UserSearchIndex() {
+        for (Field field : Field.values()) {
+            indexes.put(field, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    public void add(User user) {
+        for (Field field : Field.values()) {
+            String term = field.extractor.apply(user);
+            if (term != null) {
+                indexes.get(field).put(key(term, user), user);
+            }
+        }
+    }
+
+    public void remove(User user) {
+        for (Field field : Field.values()) {
+            String term = field.extractor.apply(user);
+            if (term != null) {
+                indexes.get(field).remove(key(term, user));
+            }
+        }
+    }
+
+    public void clear() {
+        indexes.values().forEach(Map::clear);
+    }
+
+    public Page search(Field field, String prefix, Cursor after, int limit) {
+        return search(List.of(field), prefix, after, limit);
+    }
+
+    public Page searchAnyField(String prefix, Cursor after, int limit) {
+        return search(List.of(Field.values()), prefix, after, limit);
+    }
+
+    private Page search(List<Field> fields, String prefix, Cursor after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        String normalizedPrefix = normalize(prefix == null ? "" : prefix);
+        int first = 0;
+        if (after != null) {
+            first = fields.indexOf(after.field());
+            if (first < 0 || !after.key().startsWith(normalizedPrefix)) {
+                throw new IllegalArgumentException("The cursor doesn't belong to this search.");
+            }
+        }
+        List<User> users = new ArrayList<>(limit);
+        Cursor last = null;
+        for (int k = first; k < fields.size(); k++) {
+            Field field = fields.get(k);
+            NavigableMap<String, User> range = after != null && k == first
+                    ? indexes.get(field).tailMap(after.key(), false)
+                    : indexes.get(field).tailMap(normalizedPrefix, true);
+            for (Map.Entry<String, User> entry : range.entrySet()) {
+                if (!entry.getKey().startsWith(normalizedPrefix)) {
+                    break;
+                }
+                User user = entry.getValue();
+                if (user.getType() != UserType.CUSTOMER || matchesEarlierField(fields, k, user, normalizedPrefix)) {
+                    continue;
+                }
+                if (users.size() == limit) {
+                    return new Page(users, last);
+                }
+                users.add(user);
+                last = new Cursor(field, entry.getKey());
+            }
+        }
+        return new Page(users, null);
+    }
+
+    // A user matching several fields is only returned from the first of them.
+    private static boolean matchesEarlierField(List<Field> fields, int current, User user, String normalizedPrefix) {
+        for (int k = 0; k < current; k++) {
+            String term = fields.get(k).extractor.apply(user);
+            if (term != null && normalize(term).startsWith(normalizedPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String key(String term, User user) {
+        return normalize(term) + SEPARATOR + user.getId();
+    }
+
+    private static String normalize(String term) {
+        return term.toLowerCase(Locale.ROOT);
+    }
+}
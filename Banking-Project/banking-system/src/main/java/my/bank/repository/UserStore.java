@@ -0,0 +1,98 @@
+package my.bank.repository;
+
+import my.bank.domain.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+class UserStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<String, User> usersByName = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile AtomicReferenceArray<User> usersById = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private volatile int maxId = 0;
+
+    boolean add(User user) {
+        int id = user.getId();
+        if (id <= 0) {
+            throw new IllegalArgumentException("User id must be positive.");
+        }
+        writeLock.lock();
+        try {
+            if (usersByName.containsKey(user.getUsername()) || getById(id) != null) {
+                return false;
+            }
+            ensureCapacity(id);
+            usersById.set(id, user);
+            usersByName.put(user.getUsername(), user);
+            if (id > maxId) {
+                maxId = id;
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    User getByUsername(String username) {
+        return username == null ? null : usersByName.get(username);
+    }
+
+    User getById(int id) {
+        AtomicReferenceArray<User> users = usersById;
+        return id > 0 && id < users.length() ? users.get(id) : null;
+    }
+
+    int size() {
+        return usersByName.size();
+    }
+
+    int getMaxId() {
+        return maxId;
+    }
+
+    List<User> values() {
+        AtomicReferenceArray<User> users = usersById;
+        int lastId = Math.min(maxId, users.length() - 1);
+        List<User> snapshot = new ArrayList<>(usersByName.size());
+        for (int id = 1; id <= lastId; id++) {
+            User user = users.get(id);
+            if (user != null) {
+                snapshot.add(user);
+            }
+        }
+        return snapshot;
+    }
+
+    void clear() {
+        writeLock.lock();
+        try {
+            usersByName.clear();
+            usersById = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+            maxId = 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void ensureCapacity(int id) {
+        AtomicReferenceArray<User> users = usersById;
+        if (id < users.length()) {
+            return;
+        }
+        int capacity = users.length();
+        while (capacity <= id) {
+            capacity = capacity << 1;
+        }
+        AtomicReferenceArray<User> grown = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < users.length(); i++) {
+            grown.set(i, users.get(i));
+        }
+        usersById = grown;
+    }
+}
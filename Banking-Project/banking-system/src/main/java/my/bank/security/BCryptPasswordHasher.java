@@ -0,0 +1,31 @@
+package my.bank.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class BCryptPasswordHasher implements PasswordHasher {
+    private final BCryptPasswordEncoder encoder;
+
+    public BCryptPasswordHasher(int cost) {
+        this.encoder = new BCryptPasswordEncoder(cost);
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String storedHash) {
+        return encoder.matches(rawPassword, storedHash);
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.startsWith("$2");
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        return encoder.upgradeEncoding(storedHash);
+    }
+}
@@ -0,0 +1,161 @@
+package my.bank.security;
+
+import my.bank.exception.HashingBusyException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class HashingEngine implements AutoCloseable {
+    public static final int DEFAULT_COST = 10;
+    private static final String COST_PROPERTY = "bank.hashing.bcrypt.cost";
+    private static final String THREADS_PROPERTY = "bank.hashing.threads";
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final PasswordHasher primaryHasher;
+    private final List<PasswordHasher> hashers;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder verifyCount = new LongAdder();
+    private final LongAdder rehashCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    private static HashingEngine hashingEngineInstance = null;
+
+    public HashingEngine(PasswordHasher primaryHasher, List<PasswordHasher> legacyHashers, int threads, int queueCapacity) {
+        this.primaryHasher = primaryHasher;
+        this.hashers = new ArrayList<>();
+        this.hashers.add(primaryHasher);
+        this.hashers.addAll(legacyHashers);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static synchronized HashingEngine getInstance() {
+        if (hashingEngineInstance == null) {
+            hashingEngineInstance = new HashingEngine(
+                    new BCryptPasswordHasher(Integer.getInteger(COST_PROPERTY, DEFAULT_COST)),
+                    List.of(new Sha1PasswordHasher()),
+                    Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+                    QUEUE_CAPACITY);
+        }
+        return hashingEngineInstance;
+    }
+
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submit(() -> {
+            String hash = primaryHasher.hash(rawPassword);
+            hashCount.increment();
+            return hash;
+        });
+    }
+
+    public String hash(String rawPassword) {
+        return await(hashAsync(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> verifyAsync(String rawPassword, String storedHash) {
+        PasswordHasher hasher = hasherFor(storedHash);
+        if (hasher == null || rawPassword == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return submit(() -> {
+            boolean matches = hasher.matches(rawPassword, storedHash);
+            verifyCount.increment();
+            return matches;
+        });
+    }
+
+    public boolean verify(String rawPassword, String storedHash) {
+        return await(verifyAsync(rawPassword, storedHash));
+    }
+
+    public boolean needsRehash(String storedHash) {
+        PasswordHasher hasher = hasherFor(storedHash);
+        return hasher != primaryHasher || primaryHasher.needsRehash(storedHash);
+    }
+
+    public CompletableFuture<String> rehashAsync(String rawPassword) {
+        rehashCount.increment();
+        return hashAsync(rawPassword);
+    }
+
+    public long getHashCount() {
+        return hashCount.sum();
+    }
+
+    public long getVerifyCount() {
+        return verifyCount.sum();
+    }
+
+    public long getRehashCount() {
+        return rehashCount.sum();
+    }
+
+    public double getAverageLatencyMillis() {
+        long operations = hashCount.sum() + verifyCount.sum();
+        return operations == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / operations;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public int getQueuedRequests() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private PasswordHasher hasherFor(String storedHash) {
+        for (PasswordHasher hasher : hashers) {
+            if (hasher.supports(storedHash)) {
+                return hasher;
+            }
+        }
+        return null;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.get();
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    totalNanos.add(elapsed);
+                    maxNanos.accumulate(elapsed);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            throw new HashingBusyException();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package my.bank.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class LoginThrottle {
+    public static final int DEFAULT_MAX_USER_FAILURES = 3;
+    public static final int DEFAULT_MAX_SOURCE_FAILURES = 50;
+    public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(15);
+
+    private static final int BUCKETS = 16;
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int PURGE_INTERVAL = 1024;
+
+    private final int maxUserFailures;
+    private final int maxSourceFailures;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final Map<String, FailureWindow> userFailures = new ConcurrentHashMap<>();
+    private final Map<String, FailureWindow> sourceFailures = new ConcurrentHashMap<>();
+    private final AtomicInteger failuresSincePurge = new AtomicInteger();
+    private final LongAdder rejectedAttempts = new LongAdder();
+
+    public LoginThrottle() {
+        this(DEFAULT_MAX_USER_FAILURES, DEFAULT_MAX_SOURCE_FAILURES, DEFAULT_WINDOW, System::currentTimeMillis);
+    }
+
+    public LoginThrottle(int maxUserFailures, int maxSourceFailures, Duration window, LongSupplier clock) {
+        if (maxUserFailures <= 0 || maxSourceFailures <= 0) {
+            throw new IllegalArgumentException("Failure limits must be positive.");
+        }
+        if (window.toMillis() < BUCKETS) {
+            throw new IllegalArgumentException("Lockout window must be at least " + BUCKETS + " milliseconds.");
+        }
+        this.maxUserFailures = maxUserFailures;
+        this.maxSourceFailures = maxSourceFailures;
+        this.bucketMillis = window.toMillis() / BUCKETS;
+        this.clock = clock;
+    }
+
+    public boolean isUserLocked(String username) {
+        return isLocked(userFailures, username, maxUserFailures);
+    }
+
+    public boolean isSourceLocked(String source) {
+        return isLocked(sourceFailures, source, maxSourceFailures);
+    }
+
+    public void recordFailure(String username, String source) {
+        long epoch = currentEpoch();
+        if (username != null) {
+            userFailures.computeIfAbsent(username, key -> new FailureWindow()).increment(epoch);
+        }
+        if (source != null) {
+            sourceFailures.computeIfAbsent(source, key -> new FailureWindow()).increment(epoch);
+        }
+        if (failuresSincePurge.incrementAndGet() >= PURGE_INTERVAL) {
+            failuresSincePurge.set(0);
+            purgeExpired();
+        }
+    }
+
+    public void recordSuccess(String username) {
+        userFailures.remove(username);
+    }
+
+    public int getUserFailures(String username) {
+        FailureWindow window = userFailures.get(username);
+        return window == null ? 0 : window.count(currentEpoch());
+    }
+
+    public int getSourceFailures(String source) {
+        FailureWindow window = sourceFailures.get(source);
+        return window == null ? 0 : window.count(currentEpoch());
+    }
+
+    public long getRejectedAttempts() {
+        return rejectedAttempts.sum();
+    }
+
+    public int getTrackedIdentities() {
+        return userFailures.size() + sourceFailures.size();
+    }
+
+    public void purgeExpired() {
+        long epoch = currentEpoch();
+        userFailures.values().removeIf(window -> window.count(epoch) == 0);
+        sourceFailures.values().removeIf(window -> window.count(epoch) == 0);
+    }
+
+    public void clear() {
+        userFailures.clear();
+        sourceFailures.clear();
+    }
+
+    private boolean isLocked(Map<String, FailureWindow> failures, String key, int maxFailures) {
+        if (key == null) {
+            return false;
+        }
+        FailureWindow window = failures.get(key);
+        if (window == null || window.count(currentEpoch()) < maxFailures) {
+            return false;
+        }
+        rejectedAttempts.increment();
+        return true;
+    }
+
+    private long currentEpoch() {
+        return clock.getAsLong() / bucketMillis;
+    }
+
+    // Each slot packs the bucket epoch in the high bits and its failure count in the low bits,
+    // so a stale slot is recycled by the same CAS that records the failure.
+    private static final class FailureWindow {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void increment(long epoch) {
+            int slot = (int) Math.floorMod(epoch, (long) BUCKETS);
+            while (true) {
+                long current = buckets.get(slot);
+                long next = (current >>> COUNT_BITS) == epoch
+                        ? Math.min(current + 1, (epoch << COUNT_BITS) | COUNT_MASK)
+                        : (epoch << COUNT_BITS) | 1;
+                if (buckets.compareAndSet(slot, current, next)) {
+                    return;
+                }
+            }
+        }
+
+        int count(long epoch) {
+            int count = 0;
+            for (int slot = 0; slot < BUCKETS; slot++) {
+                long bucket = buckets.get(slot);
+                long bucketEpoch = bucket >>> COUNT_BITS;
+                if (bucketEpoch <= epoch && bucketEpoch > epoch - BUCKETS) {
+                    count += (int) (bucket & COUNT_MASK);
+                }
+            }
+            return count;
+        }
+    }
+}
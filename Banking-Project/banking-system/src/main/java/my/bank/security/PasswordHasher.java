@@ -0,0 +1,11 @@
+package my.bank.security;
+
+public interface PasswordHasher {
+    String hash(String rawPassword);
+
+    boolean matches(String rawPassword, String storedHash);
+
+    boolean supports(String storedHash);
+
+    boolean needsRehash(String storedHash);
+}
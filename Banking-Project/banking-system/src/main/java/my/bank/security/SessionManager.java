@@ -0,0 +1,120 @@
+package my.bank.security;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+public class SessionManager {
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(30);
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+    private static final String TTL_PROPERTY = "bank.session.ttl.seconds";
+    private static final String IDLE_TIMEOUT_PROPERTY = "bank.session.idle.seconds";
+    private static final int TOKEN_BYTES = 32;
+    private static final int PURGE_INTERVAL = 1024;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final AtomicInteger issuedSincePurge = new AtomicInteger();
+    private final long ttlMillis;
+    private final long idleTimeoutMillis;
+    private final LongSupplier clock;
+
+    public SessionManager() {
+        this(Duration.ofSeconds(Long.getLong(TTL_PROPERTY, DEFAULT_TTL.toSeconds())),
+                Duration.ofSeconds(Long.getLong(IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT.toSeconds())),
+                System::currentTimeMillis);
+    }
+
+    public SessionManager(Duration ttl, Duration idleTimeout, LongSupplier clock) {
+        if (ttl.isZero() || ttl.isNegative() || idleTimeout.isZero() || idleTimeout.isNegative()) {
+            throw new IllegalArgumentException("Session timeouts must be positive.");
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.clock = clock;
+    }
+
+    public String issue(int userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = encoder.encodeToString(bytes);
+        long now = clock.getAsLong();
+        sessions.put(token, new Session(userId, now));
+        if (issuedSincePurge.incrementAndGet() >= PURGE_INTERVAL) {
+            issuedSincePurge.set(0);
+            purgeExpired();
+        }
+        return token;
+    }
+
+    public Optional<Session> validate(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return Optional.empty();
+        }
+        long now = clock.getAsLong();
+        if (isExpired(session, now)) {
+            sessions.remove(token, session);
+            return Optional.empty();
+        }
+        session.lastAccessMillis = now;
+        return Optional.of(session);
+    }
+
+    public void invalidate(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    public void invalidateUser(int userId) {
+        sessions.values().removeIf(session -> session.userId == userId);
+    }
+
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        sessions.values().removeIf(session -> isExpired(session, now));
+    }
+
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.createdMillis >= ttlMillis || now - session.lastAccessMillis >= idleTimeoutMillis;
+    }
+
+    public static final class Session {
+        private final int userId;
+        private final long createdMillis;
+        private volatile long lastAccessMillis;
+        private volatile int verifiedAccountNumber = -1;
+
+        private Session(int userId, long createdMillis) {
+            this.userId = userId;
+            this.createdMillis = createdMillis;
+            this.lastAccessMillis = createdMillis;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public boolean isPinVerified(int accountNumber) {
+            return verifiedAccountNumber == accountNumber;
+        }
+
+        public void markPinVerified(int accountNumber) {
+            verifiedAccountNumber = accountNumber;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package my.bank.security;
+
+import my.bank.domain.PasswordHashing;
+
+public class Sha1PasswordHasher implements PasswordHasher {
+    private static final int HEX_LENGTH = 40;
+
+    @Override
+    public String hash(String rawPassword) {
+        return PasswordHashing.hashPasswordSHA1(rawPassword);
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String storedHash) {
+        return PasswordHashing.matchesSHA1(rawPassword, PasswordHashing.fromHex(storedHash));
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.length() == HEX_LENGTH && PasswordHashing.fromHex(storedHash) != null;
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        return false;
+    }
+}
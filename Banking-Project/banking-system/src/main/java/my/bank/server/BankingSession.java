@@ -0,0 +1,314 @@
+package my.bank.server;
+
+import my.bank.domain.*;
+import my.bank.repository.AccountRepository;
+import my.bank.repository.TransactionRepository;
+import my.bank.repository.UserRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+class BankingSession {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final List<String> HELP = List.of(
+            "SIGNUP <username> <password> <firstName> <lastName> <accountType> <plan> <withdrawLimit> <initialDeposit> <pin>",
+            "LOGIN <username> <password>",
+            "ACCOUNTS",
+            "USE <accountNumber>",
+            "OPEN <accountType> <plan> <withdrawLimit> <initialDeposit> <pin>",
+            "BALANCE <pin>",
+            "DEPOSIT <pin> <amount>",
+            "WITHDRAW <pin> <amount>",
+            "TRANSFER <pin> <receiverAccountNumber> <amount>",
+            "FAVORITES <pin>",
+            "ADD_FAVORITE <pin> <accountNumber>",
+            "REMOVE_FAVORITE <pin> <accountNumber>",
+            "HISTORY <pin> [<fromDate dd-MM-yyyy> <toDate dd-MM-yyyy>]",
+            "RESET_PASSWORD <pin> <oldPassword> <newPassword>",
+            "DEACTIVATE <pin>",
+            "LOGOUT",
+            "QUIT");
+
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final BufferedReader reader;
+    private final PrintWriter writer;
+    private final String source;
+    private User loggedInUser = null;
+    private Account userAccount = null;
+
+    BankingSession(UserRepository userRepository, AccountRepository accountRepository,
+                   TransactionRepository transactionRepository, BufferedReader reader, PrintWriter writer,
+                   String source) {
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.reader = reader;
+        this.writer = writer;
+        this.source = source;
+    }
+
+    void run() throws IOException {
+        ok("Welcome to Banking Management System");
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (!handle(line.trim().split("\\s+"))) {
+                return;
+            }
+        }
+    }
+
+    private boolean handle(String[] command) {
+        try {
+            switch (command[0].toUpperCase()) {
+                case "HELP" -> lines(HELP);
+                case "SIGNUP" -> signUp(command);
+                case "LOGIN" -> login(command);
+                case "ACCOUNTS" -> showAccounts(command);
+                case "USE" -> useAccount(command);
+                case "OPEN" -> openAccount(command);
+                case "BALANCE" -> showBalance(command);
+                case "DEPOSIT" -> deposit(command);
+                case "WITHDRAW" -> withdraw(command);
+                case "TRANSFER" -> transfer(command);
+                case "FAVORITES" -> showFavoriteAccounts(command);
+                case "ADD_FAVORITE" -> addFavoriteAccount(command);
+                case "REMOVE_FAVORITE" -> removeFavoriteAccount(command);
+                case "HISTORY" -> showTransactionHistory(command);
+                case "RESET_PASSWORD" -> resetPassword(command);
+                case "DEACTIVATE" -> deactivateAccount(command);
+                case "LOGOUT" -> logOut();
+                case "QUIT", "EXIT" -> {
+                    if (loggedInUser != null) {
+                        userRepository.logout(loggedInUser.getUsername());
+                    }
+                    ok("Goodbye!");
+                    return false;
+                }
+                default -> error("Unknown command " + command[0] + ". Type HELP for the list of commands.");
+            }
+        } catch (Exception e) {
+            error(e.getMessage());
+        }
+        return true;
+    }
+
+    private void signUp(String[] command) {
+        requireArguments(command, 9);
+        if (loggedInUser != null) {
+            throw new IllegalStateException("Please log out first.");
+        }
+        AccountType type = AccountType.valueOf(command[5].toUpperCase());
+        AccountPlan plan = AccountPlan.valueOf(command[6].toUpperCase());
+        double withdrawLimit = Double.parseDouble(command[7]);
+        if (plan == AccountPlan.NORMAL) {
+            accountRepository.validateNormalWithdrawLimit(withdrawLimit);
+        } else {
+            withdrawLimit = accountRepository.getWithdrawLimit(plan);
+        }
+        double initialDeposit = Double.parseDouble(command[8]);
+        accountRepository.validateDepositLimit(initialDeposit, plan);
+        accountRepository.validatePin(command[9]);
+
+        User user = userRepository.signUp(command[1], command[2], command[3], command[4]);
+        Account account = accountRepository.addNewAccount(user.getId(), command[9], type, plan, withdrawLimit, initialDeposit);
+        ok("You have successfully created your account " + account.getAccountNumber() + ".");
+    }
+
+    private void login(String[] command) {
+        requireArguments(command, 2);
+        if (loggedInUser != null) {
+            throw new IllegalStateException("Please log out first.");
+        }
+        User user = userRepository.login(command[1], command[2], source);
+        if (user.getType() == UserType.CUSTOMER) {
+            userAccount = accountRepository.getActiveUserAccount(user.getId());
+        }
+        loggedInUser = user;
+        ok("Welcome " + user.getFirstName() + " " + user.getLastName() + ".");
+    }
+
+    private void showAccounts(String[] command) {
+        requireArguments(command, 0);
+        requireCustomer();
+        lines(accountRepository.getUserAccounts(loggedInUser.getId()).stream()
+                .map(account -> account.getAccountNumber() + ": " + account.getType() + " " + account.getPlan()
+                        + (account.isActive() ? "" : " (deactivated)")
+                        + (account == userAccount ? " *" : ""))
+                .toList());
+    }
+
+    private void useAccount(String[] command) {
+        requireArguments(command, 1);
+        requireCustomer();
+        Account account = accountRepository.getAccount(Integer.parseInt(command[1]));
+        if (!account.getUserId().equals(loggedInUser.getId())) {
+            throw new IllegalArgumentException("Invalid account number.");
+        }
+        accountRepository.validateActive(account);
+        userAccount = account;
+        ok("You are now using account " + account.getAccountNumber() + ".");
+    }
+
+    private void openAccount(String[] command) {
+        requireArguments(command, 5);
+        requireCustomer();
+        AccountType type = AccountType.valueOf(command[1].toUpperCase());
+        AccountPlan plan = AccountPlan.valueOf(command[2].toUpperCase());
+        double withdrawLimit = Double.parseDouble(command[3]);
+        if (plan == AccountPlan.NORMAL) {
+            accountRepository.validateNormalWithdrawLimit(withdrawLimit);
+        } else {
+            withdrawLimit = accountRepository.getWithdrawLimit(plan);
+        }
+        double initialDeposit = Double.parseDouble(command[4]);
+        accountRepository.validateDepositLimit(initialDeposit, plan);
+        accountRepository.validatePin(command[5]);
+
+        userAccount = accountRepository.addNewAccount(loggedInUser.getId(), command[5], type, plan, withdrawLimit, initialDeposit);
+        ok("You have successfully opened account " + userAccount.getAccountNumber() + ".");
+    }
+
+    private void showBalance(String[] command) {
+        authorize(command, 1);
+        ok("Your current balance: " + userAccount.getBalance() + "USD.");
+    }
+
+    private void deposit(String[] command) {
+        authorize(command, 2);
+        double amount = parseAmount(command[2]);
+        accountRepository.deposit(userAccount, amount);
+        ok("You have successfully deposited " + amount + " USD. Your new balance is: " + userAccount.getBalance() + " USD.");
+    }
+
+    private void withdraw(String[] command) {
+        authorize(command, 2);
+        double amount = parseAmount(command[2]);
+        accountRepository.withdraw(userAccount, amount);
+        ok("You have successfully withdrawn " + amount + " USD. Your new balance is: " + userAccount.getBalance() + " USD.");
+    }
+
+    private void transfer(String[] command) {
+        authorize(command, 3);
+        int receiverAccountNumber = Integer.parseInt(command[2]);
+        double amount = parseAmount(command[3]);
+        accountRepository.validateAccountNumber(receiverAccountNumber);
+        accountRepository.transfer(userAccount.getAccountNumber(), receiverAccountNumber, amount);
+        ok("Transfer completed successfully. Thank you for banking with us.");
+    }
+
+    private void showFavoriteAccounts(String[] command) {
+        authorize(command, 1);
+        lines(accountRepository.getAllFavoriteAccount(userAccount).stream()
+                .map(account -> account.getAccountNumber() + ": " + userRepository.getUserInfo(account.getUserId()))
+                .toList());
+    }
+
+    private void addFavoriteAccount(String[] command) {
+        authorize(command, 2);
+        Account favoriteAccount = accountRepository.getAccount(Integer.parseInt(command[2]));
+        accountRepository.addNewFavoriteAccount(userAccount, favoriteAccount);
+        ok("Account successfully added to your favorite list.");
+    }
+
+    private void removeFavoriteAccount(String[] command) {
+        authorize(command, 2);
+        Account favoriteAccount = accountRepository.getAccount(Integer.parseInt(command[2]));
+        accountRepository.removeFavoriteAccount(userAccount, favoriteAccount);
+        ok("Account successfully removed from your favorite list.");
+    }
+
+    private void showTransactionHistory(String[] command) {
+        authorize(command, 1);
+        List<Transaction> transactions;
+        if (command.length > 2) {
+            requireArguments(command, 3);
+            LocalDate fromDate = LocalDate.parse(command[2], DATE_FORMATTER);
+            LocalDate toDate = LocalDate.parse(command[3], DATE_FORMATTER);
+            if (toDate.isBefore(fromDate)) {
+                throw new IllegalArgumentException("The end date must be after the start date.");
+            }
+            transactions = transactionRepository.getTransactions(userAccount, fromDate, toDate);
+        } else {
+            transactions = transactionRepository.getTransactions(userAccount);
+        }
+        lines(transactions.stream().map(Transaction::toString).toList());
+    }
+
+    private void resetPassword(String[] command) {
+        authorize(command, 3);
+        userRepository.resetPassword(loggedInUser.getUsername(), command[2], command[3]);
+        ok("You have successfully set a new password.");
+    }
+
+    private void deactivateAccount(String[] command) {
+        authorize(command, 1);
+        accountRepository.deactivateAccount(userAccount);
+        Account activeAccount = accountRepository.getUserAccounts(loggedInUser.getId()).stream()
+                .filter(Account::isActive).findFirst().orElse(null);
+        if (activeAccount != null) {
+            userAccount = activeAccount;
+            ok("Your account was deactivated. You are now using account " + activeAccount.getAccountNumber() + ".");
+            return;
+        }
+        userRepository.deactivateUser(loggedInUser);
+        logOut();
+    }
+
+    private void logOut() {
+        if (loggedInUser == null) {
+            throw new IllegalStateException("You are not logged in.");
+        }
+        userRepository.logout(loggedInUser.getUsername());
+        loggedInUser = null;
+        userAccount = null;
+        ok("Goodbye!");
+    }
+
+    private void authorize(String[] command, int arguments) {
+        requireArguments(command, arguments);
+        requireCustomer();
+        userAccount.validatePin(command[1]);
+    }
+
+    private void requireCustomer() {
+        if (loggedInUser == null || userAccount == null) {
+            throw new IllegalStateException("Please log in to a customer account first.");
+        }
+    }
+
+    private void requireArguments(String[] command, int arguments) {
+        if (command.length != arguments + 1) {
+            throw new IllegalArgumentException("Expected " + arguments + " argument(s) for " + command[0].toUpperCase() + ".");
+        }
+    }
+
+    private double parseAmount(String value) {
+        double amount = Double.parseDouble(value);
+        if (!(amount > 0.0) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Invalid amount.");
+        }
+        return amount;
+    }
+
+    private void ok(String message) {
+        writer.println("OK " + message);
+    }
+
+    private void lines(List<String> lines) {
+        writer.println("OK " + lines.size());
+        lines.forEach(writer::println);
+    }
+
+    private void error(String message) {
+        writer.println("ERR " + message);
+    }
+}
@@ -0,0 +1,90 @@
+package my.bank.server;
+
+import my.bank.repository.AccountRepository;
+import my.bank.repository.TransactionRepository;
+import my.bank.repository.UserRepository;
+import my.bank.utils.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SessionServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7070;
+    private static final int BACKLOG = 4096;
+
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    public SessionServer(int port, UserRepository userRepository, AccountRepository accountRepository,
+                         TransactionRepository transactionRepository) throws IOException {
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public void start() {
+        Thread.ofPlatform().name("session-acceptor").daemon().start(this::acceptConnections);
+    }
+
+    public void run() {
+        Logger.printStartEnd("Banking session server listening on port " + getPort());
+        acceptConnections();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessionExecutor.submit(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    Logger.error("Failed to accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        activeSessions.incrementAndGet();
+        // Behind the loopback binding every client, or the proxy in front of them, shares one address. Throttling
+        // that address would let one client lock every user out, so such sessions rely on the per-user limit alone.
+        String source = socket.getInetAddress().isLoopbackAddress() ? null : socket.getInetAddress().getHostAddress();
+        try (socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            new BankingSession(userRepository, accountRepository, transactionRepository, reader, writer, source).run();
+        } catch (IOException e) {
+            Logger.error("Session closed unexpectedly: " + e.getMessage());
+        } finally {
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessionExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,213 @@
+package my.bank.tools;
+
+import my.bank.domain.AccountPlan;
+import my.bank.domain.AccountType;
+import my.bank.domain.PasswordHashing;
+import my.bank.domain.TransactionType;
+import my.bank.utils.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+
+public class DatasetGenerator {
+    public static final String PASSWORD = "Passw0rd";
+    public static final String PIN = "1234";
+    public static final int FIRST_ACCOUNT_NUMBER = 10001;
+
+    private static final int MAX_FAVORITES = 3;
+    private static final int INACTIVE_PER_MILLE = 20;
+    private static final double ACTIVITY_SKEW = 2.0;
+    private static final long HISTORY_DAYS = 365;
+    private static final long MIN_AMOUNT_CENTS = 100;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final int users;
+    private final long transactions;
+    private final long seed;
+    private final LocalDateTime historyStart;
+    private final long[] balanceCents;
+
+    public DatasetGenerator(int users, long transactions, long seed) {
+        if (users < 1) {
+            throw new IllegalArgumentException("At least one user is required.");
+        }
+        if (transactions < 0) {
+            throw new IllegalArgumentException("Transaction count cannot be negative.");
+        }
+        this.users = users;
+        this.transactions = transactions;
+        this.seed = seed;
+        this.historyStart = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusDays(HISTORY_DAYS);
+        this.balanceCents = new long[users];
+    }
+
+    public static void main(String[] args) {
+        File outputDirectory = new File(args.length > 0 ? args[0] : "dataset");
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long transactions = args.length > 2 ? Long.parseLong(args[2]) : 100 * (long) users;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            Logger.error("Cannot create output directory: " + outputDirectory);
+            return;
+        }
+        long start = System.nanoTime();
+        new DatasetGenerator(users, transactions, seed).generate(outputDirectory);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Logger.printInfo("Generated " + users + " users, " + users + " accounts and " + (users + transactions)
+                + " transactions in " + outputDirectory + " in " + elapsedMillis + " ms.");
+    }
+
+    public static String username(int userId) {
+        return "user" + userId;
+    }
+
+    public static int accountNumber(int userId) {
+        return FIRST_ACCOUNT_NUMBER + userId - 1;
+    }
+
+    public void generate(File outputDirectory) {
+        writeUsers(new File(outputDirectory, "users.csv"));
+        writeTransactions(new File(outputDirectory, "transactions.csv"));
+        writeAccounts(new File(outputDirectory, "accounts.csv"));
+    }
+
+    private void writeUsers(File file) {
+        String passwordHash = PasswordHashing.hashPasswordSHA1(PASSWORD);
+        try (BufferedWriter writer = newWriter(file)) {
+            writer.write("id,username,password,firstName,lastName,type,isActive\n");
+            for (int userId = 1; userId <= users; userId++) {
+                writer.write(userId + "," + username(userId) + ",\"" + passwordHash + "\",First" + userId
+                        + ",Last" + userId + ",CUSTOMER," + isActive(userId) + "\n");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeTransactions(File file) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long openingNanos = ChronoUnit.NANOS.between(historyStart, historyStart.plusDays(1)) / users;
+        long historyNanos = ChronoUnit.NANOS.between(historyStart.plusDays(1), historyStart.plusDays(HISTORY_DAYS));
+        long stepNanos = transactions == 0 ? 0 : historyNanos / transactions;
+        try (BufferedWriter writer = newWriter(file)) {
+            writer.write("accountNumber,timeStamp,type,amount\n");
+            LocalDateTime timestamp = historyStart;
+            for (int userId = 1; userId <= users; userId++) {
+                long cents = randomCents(random, depositLimitCents(plan(userId)));
+                balanceCents[userId - 1] = cents;
+                writeTransaction(writer, accountNumber(userId), timestamp, TransactionType.CREDIT, cents);
+                timestamp = timestamp.plusNanos(openingNanos);
+            }
+            timestamp = historyStart.plusDays(1);
+            for (long i = 0; i < transactions; i++) {
+                int userId = 1 + (int) (users * Math.pow(random.nextDouble(), ACTIVITY_SKEW));
+                AccountPlan plan = plan(userId);
+                long balance = balanceCents[userId - 1];
+                TransactionType type;
+                long cents;
+                if (random.nextBoolean() && balance > 0) {
+                    type = TransactionType.DEBIT;
+                    cents = Math.min(balance, randomCents(random, withdrawLimitCents(plan)));
+                    balanceCents[userId - 1] = balance - cents;
+                } else {
+                    type = TransactionType.CREDIT;
+                    cents = randomCents(random, depositLimitCents(plan));
+                    balanceCents[userId - 1] = balance + cents;
+                }
+                writeTransaction(writer, accountNumber(userId), timestamp, type, cents);
+                timestamp = timestamp.plusNanos(1 + random.nextLong(Math.max(1, 2 * stepNanos)));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeAccounts(File file) {
+        SplittableRandom random = new SplittableRandom(~seed);
+        String pinHash = PasswordHashing.hashPasswordSHA1(PIN);
+        AccountType[] types = AccountType.values();
+        try (BufferedWriter writer = newWriter(file)) {
+            writer.write("accountNumber,pin,userId,type,plan,balance,withdrawLimit,depositLimit,isActive,overdraftCounter,favoriteAccounts\n");
+            StringBuilder favorites = new StringBuilder();
+            for (int userId = 1; userId <= users; userId++) {
+                AccountPlan plan = plan(userId);
+                favorites.setLength(0);
+                int favoriteCount = users > 1 ? random.nextInt(Math.min(MAX_FAVORITES, users - 1) + 1) : 0;
+                int firstOffset = favoriteCount > 0 ? random.nextInt(users - 1) : 0;
+                for (int i = 0; i < favoriteCount; i++) {
+                    int offset = 1 + (firstOffset + i) % (users - 1);
+                    int favoriteUserId = 1 + (userId - 1 + offset) % users;
+                    if (favorites.length() > 0) {
+                        favorites.append(';');
+                    }
+                    favorites.append(accountNumber(favoriteUserId));
+                }
+                writer.write(accountNumber(userId) + ",\"" + pinHash + "\"," + userId + "," + types[userId % types.length]
+                        + "," + plan + "," + formatCents(balanceCents[userId - 1]) + "," + formatCents(withdrawLimitCents(plan))
+                        + "," + formatCents(depositLimitCents(plan)) + "," + isActive(userId) + ",0," + favorites + "\n");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void writeTransaction(BufferedWriter writer, int accountNumber, LocalDateTime timestamp,
+                                         TransactionType type, long cents) throws IOException {
+        writer.write(accountNumber + ",\"" + timestamp + "\"," + type + "," + formatCents(cents) + "\n");
+    }
+
+    private static BufferedWriter newWriter(File file) throws IOException {
+        return new BufferedWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    public boolean isActive(int userId) {
+        return Math.floorMod(userId * 0x9E3779B1L ^ seed, 1000) >= INACTIVE_PER_MILLE;
+    }
+
+    private static AccountPlan plan(int userId) {
+        int bucket = Math.floorMod(userId * 0x9E3779B1L, 100);
+        if (bucket < 5) {
+            return AccountPlan.PLATINUM;
+        }
+        if (bucket < 20) {
+            return AccountPlan.GOLD;
+        }
+        if (bucket < 50) {
+            return AccountPlan.SILVER;
+        }
+        return AccountPlan.NORMAL;
+    }
+
+    private static long withdrawLimitCents(AccountPlan plan) {
+        return switch (plan) {
+            case PLATINUM -> 2_000_000;
+            case GOLD -> 1_000_000;
+            case SILVER -> 100_000;
+            case NORMAL -> 20_000;
+        };
+    }
+
+    private static long depositLimitCents(AccountPlan plan) {
+        return switch (plan) {
+            case PLATINUM -> 3_000_000;
+            case GOLD -> 1_500_000;
+            case SILVER -> 150_000;
+            case NORMAL -> 30_000;
+        };
+    }
+
+    private static long randomCents(SplittableRandom random, long limitCents) {
+        double low = Math.log(MIN_AMOUNT_CENTS);
+        return Math.round(Math.exp(low + random.nextDouble() * (Math.log(limitCents) - low)));
+    }
+
+    private static String formatCents(long cents) {
+        return cents / 100 + "." + (cents % 100 < 10 ? "0" : "") + cents % 100;
+    }
+}
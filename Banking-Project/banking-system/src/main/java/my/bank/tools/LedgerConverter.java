@@ -0,0 +1,23 @@
+package my.bank.tools;
+
+import my.bank.repository.TransactionLedger;
+import my.bank.utils.Logger;
+
+import java.io.File;
+
+public class LedgerConverter {
+
+    public static void main(String[] args) {
+        File csvFile = new File(args.length > 0 ? args[0] : "transactions.csv");
+        File ledgerFile = new File(args.length > 1 ? args[1] : "transactions.ledger");
+        if (!csvFile.exists()) {
+            Logger.error("Transactions file not found: " + csvFile);
+            return;
+        }
+        long start = System.nanoTime();
+        long records = TransactionLedger.convertFromCsv(csvFile, ledgerFile);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Logger.printInfo("Converted " + records + " transactions from " + csvFile + " to " + ledgerFile
+                + " in " + elapsedMillis + " ms.");
+    }
+}
@@ -0,0 +1,47 @@
+package my.bank.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+public class AtomicFileWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public interface Content {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    public static void write(File target, Content content) {
+        File directory = target.getAbsoluteFile().getParentFile();
+        File temporary = null;
+        try {
+            temporary = File.createTempFile(target.getName() + ".", ".tmp", directory);
+            try (FileOutputStream file = new FileOutputStream(temporary)) {
+                OutputStream output = new BufferedOutputStream(file, BUFFER_SIZE) {
+                    @Override
+                    public void close() throws IOException {
+                        flush();
+                    }
+                };
+                content.writeTo(output);
+                output.flush();
+                file.getFD().sync();
+            }
+            try {
+                Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            if (temporary != null) {
+                temporary.delete();
+            }
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -1,18 +1,117 @@
 package my.bank.utils;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import my.bank.domain.Account;
+import my.bank.domain.CheckingAccount;
+import my.bank.domain.SavingsAccount;
+import my.bank.domain.Transaction;
+import my.bank.domain.User;
+
+import java.util.List;
+import java.util.Map;
 
 public class CsvMapperUtils {
-    private static CsvMapper csvMapper = null;
+    public static final CsvSchema USER_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("username")
+            .addColumn("password")
+            .addColumn("firstName")
+            .addColumn("lastName")
+            .addColumn("type")
+            .addColumn("isActive")
+            .setUseHeader(true)
+            .build();
+
+    public static final CsvSchema ACCOUNT_SCHEMA = CsvSchema.builder()
+            .addColumn("accountNumber")
+            .addColumn("pin")
+            .addColumn("userId")
+            .addColumn("type")
+            .addColumn("plan")
+            .addColumn("balance")
+            .addColumn("withdrawLimit")
+            .addColumn("depositLimit")
+            .addColumn("isActive")
+            .addColumn("overdraftCounter")
+            .addColumn("favoriteAccounts")
+            .setUseHeader(true)
+            .build();
+
+    public static final CsvSchema TRANSACTION_SCHEMA = CsvSchema.builder()
+            .addColumn("accountNumber")
+            .addColumn("timeStamp")
+            .addColumn("type")
+            .addColumn("amount")
+            .setUseHeader(true)
+            .build();
+
+    private static class Holder {
+        private static final CsvMapper CSV_MAPPER = createMapper();
+        private static final Map<Class<?>, ObjectReader> READERS = Map.of(
+                User.class, reader(User.class),
+                Account.class, reader(Account.class),
+                Transaction.class, reader(Transaction.class));
+        private static final Map<Class<?>, ObjectWriter> WRITERS = Map.of(
+                User.class, CSV_MAPPER.writer(USER_SCHEMA),
+                Account.class, CSV_MAPPER.writer(ACCOUNT_SCHEMA),
+                Transaction.class, CSV_MAPPER.writer(TRANSACTION_SCHEMA));
+        private static final Map<Class<?>, ObjectWriter> ROW_WRITERS = Map.of(
+                User.class, CSV_MAPPER.writer(USER_SCHEMA.withoutHeader()),
+                Account.class, CSV_MAPPER.writer(ACCOUNT_SCHEMA.withoutHeader()),
+                Transaction.class, CSV_MAPPER.writer(TRANSACTION_SCHEMA.withoutHeader()));
+
+        static {
+            try {
+                for (Class<?> type : List.of(User.class, CheckingAccount.class, SavingsAccount.class, Transaction.class)) {
+                    CSV_MAPPER.getSerializerProviderInstance().findValueSerializer(type);
+                }
+            } catch (JsonMappingException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private static ObjectReader reader(Class<?> type) {
+            CsvSchema schema = CSV_MAPPER.schemaFor(type)
+                    .withHeader()
+                    .withColumnReordering(true);
+            return CSV_MAPPER.readerFor(type).with(schema);
+        }
+    }
 
     public static CsvMapper getInstance() {
-        if (csvMapper == null) {
-            csvMapper = new CsvMapper();
-            csvMapper.registerModule(new JavaTimeModule());
-            csvMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return Holder.CSV_MAPPER;
+    }
+
+    public static ObjectReader readerFor(Class<?> type) {
+        return lookup(Holder.READERS, type);
+    }
+
+    public static ObjectWriter writerFor(Class<?> type) {
+        return lookup(Holder.WRITERS, type);
+    }
+
+    public static ObjectWriter rowWriterFor(Class<?> type) {
+        return lookup(Holder.ROW_WRITERS, type);
+    }
+
+    private static <T> T lookup(Map<Class<?>, T> registry, Class<?> type) {
+        T value = registry.get(type);
+        if (value == null) {
+            throw new IllegalArgumentException("No CSV mapping registered for " + type.getSimpleName() + ".");
         }
+        return value;
+    }
+
+    private static CsvMapper createMapper() {
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.registerModule(new JavaTimeModule());
+        csvMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         return csvMapper;
     }
 }
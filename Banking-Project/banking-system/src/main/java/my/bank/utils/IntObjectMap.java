@@ -0,0 +1,176 @@
+package my.bank.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+public class IntObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    // Keys and values live in one table object so that an optimistic reader racing with a resize
+    // always probes arrays of the same length.
+    private static final class Table {
+        final int[] keys;
+        final Object[] values;
+        final int shift;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+            shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        int slot(int key) {
+            return (key * GOLDEN_RATIO) >>> shift;
+        }
+
+        Object find(int key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key), probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+                Object value = values[i];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[i] == key) {
+                    return value;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+    private int size;
+
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        table = new Table(capacityFor(expectedSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        long stamp = lock.tryOptimisticRead();
+        Object value = table.find(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = table.find(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return (V) value;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported.");
+        }
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int mask = current.keys.length - 1;
+            int i = current.slot(key);
+            while (current.values[i] != null) {
+                if (current.keys[i] == key) {
+                    Object previous = current.values[i];
+                    current.values[i] = value;
+                    return (V) previous;
+                }
+                i = (i + 1) & mask;
+            }
+            current.keys[i] = key;
+            current.values[i] = value;
+            if (++size > current.keys.length >> 1) {
+                table = rehash(current, current.keys.length << 1);
+            }
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int result = size;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                result = size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(MIN_CAPACITY);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        long stamp = lock.readLock();
+        try {
+            for (Object value : table.values) {
+                if (value != null) {
+                    action.accept((V) value);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        forEachValue(values::add);
+        return values;
+    }
+
+    private static Table rehash(Table current, int capacity) {
+        Table grown = new Table(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < current.keys.length; j++) {
+            Object value = current.values[j];
+            if (value != null) {
+                int i = grown.slot(current.keys[j]);
+                while (grown.values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                grown.keys[i] = current.keys[j];
+                grown.values[i] = value;
+            }
+        }
+        return grown;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity >> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,17 @@
+package my.bank.validation;
+
+public record ValidationResult(boolean valid, String message) {
+    private static final ValidationResult VALID = new ValidationResult(true, null);
+
+    public static ValidationResult ok() {
+        return VALID;
+    }
+
+    public static ValidationResult invalid(String message) {
+        return new ValidationResult(false, message);
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+}
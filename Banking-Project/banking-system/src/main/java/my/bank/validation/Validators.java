@@ -0,0 +1,79 @@
+package my.bank.validation;
+
+public class Validators {
+    public static final int MIN_PASSWORD_LENGTH = 6;
+    public static final int PIN_LENGTH = 4;
+
+    private static final ValidationResult INVALID_USERNAME =
+            ValidationResult.invalid("Username is not valid. It shoudn't contain any Uppercase letters.");
+    private static final ValidationResult PASSWORD_TOO_SHORT =
+            ValidationResult.invalid("Password must be at least " + MIN_PASSWORD_LENGTH + " characters long.");
+    private static final ValidationResult PASSWORD_WITHOUT_LOWERCASE =
+            ValidationResult.invalid("Password must contain at least one lowercase letter.");
+    private static final ValidationResult PASSWORD_WITHOUT_UPPERCASE =
+            ValidationResult.invalid("Password must contain at least one uppercase letter.");
+    private static final ValidationResult PASSWORD_WITHOUT_DIGIT =
+            ValidationResult.invalid("Password must contain at least one digit.");
+    private static final ValidationResult INVALID_PIN =
+            ValidationResult.invalid("Invalid pin format! only " + PIN_LENGTH + " digit.");
+
+    private Validators() {
+    }
+
+    public static ValidationResult validateUsername(String username) {
+        if (username == null || username.isBlank()) {
+            return INVALID_USERNAME;
+        }
+        for (int i = 0; i < username.length(); i++) {
+            if (isUppercase(username.charAt(i))) {
+                return INVALID_USERNAME;
+            }
+        }
+        return ValidationResult.ok();
+    }
+
+    public static ValidationResult validatePassword(String password) {
+        if (password == null || password.length() < MIN_PASSWORD_LENGTH) {
+            return PASSWORD_TOO_SHORT;
+        }
+        boolean hasLowercase = false;
+        boolean hasUppercase = false;
+        boolean hasDigit = false;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            hasLowercase |= c >= 'a' && c <= 'z';
+            hasUppercase |= isUppercase(c);
+            hasDigit |= isDigit(c);
+        }
+        if (!hasLowercase) {
+            return PASSWORD_WITHOUT_LOWERCASE;
+        }
+        if (!hasUppercase) {
+            return PASSWORD_WITHOUT_UPPERCASE;
+        }
+        if (!hasDigit) {
+            return PASSWORD_WITHOUT_DIGIT;
+        }
+        return ValidationResult.ok();
+    }
+
+    public static ValidationResult validatePin(String pin) {
+        if (pin == null || pin.length() != PIN_LENGTH) {
+            return INVALID_PIN;
+        }
+        for (int i = 0; i < PIN_LENGTH; i++) {
+            if (!isDigit(pin.charAt(i))) {
+                return INVALID_PIN;
+            }
+        }
+        return ValidationResult.ok();
+    }
+
+    private static boolean isUppercase(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
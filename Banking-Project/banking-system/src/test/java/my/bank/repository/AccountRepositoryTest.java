@@ -4,13 +4,22 @@ import lombok.SneakyThrows;
 import my.bank.domain.Account;
 import my.bank.domain.AccountPlan;
 import my.bank.domain.AccountType;
+import my.bank.domain.PlanSummary;
 import my.bank.domain.User;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static my.bank.TestFixtures.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,10 +28,16 @@ public class AccountRepositoryTest {
 
     private AccountRepository accountRepository;
     private UserRepository userRepository;
+    private TransactionRepository transactionRepository;
+
+    @TempDir
+    File temporaryDirectory;
 
     @BeforeEach
     @SneakyThrows
     public void setup() {
+        URI transactionsFilePath = getClass().getClassLoader().getResource("transactions.csv").toURI();
+        transactionRepository = TransactionRepository.getInstance(new File(transactionsFilePath));
         URI filePath = getClass().getClassLoader().getResource("accounts.csv").toURI();
         accountRepository = AccountRepository.getInstance(new File(filePath));
         URI usersFilePath = getClass().getClassLoader().getResource("users.csv").toURI();
@@ -203,4 +218,233 @@ public class AccountRepositoryTest {
         assertEquals(false, user.isActive());
 
     }
+
+    @Test
+    public void concurrentTransfersConserveTotalBalance() throws Exception {
+        int accountCount = 16;
+        int threads = 8;
+        int transfersPerThread = 500;
+        double initialBalance = 1000.0;
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < accountCount; i++) {
+            accounts.add(accountRepository.addNewAccount(i + 1, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.PLATINUM,
+                    accountRepository.getWithdrawLimit(AccountPlan.PLATINUM), initialBalance));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < transfersPerThread; i++) {
+                    Account sender = accounts.get(random.nextInt(accountCount));
+                    Account receiver = accounts.get(random.nextInt(accountCount));
+                    try {
+                        accountRepository.transfer(sender.getAccountNumber(), receiver.getAccountNumber(), random.nextInt(1, 200));
+                    } catch (IllegalArgumentException e) {
+                        // insufficient balance on a savings account, the transfer is rejected as a whole
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        double total = accounts.stream().mapToDouble(Account::getBalance).sum();
+        assertEquals(accountCount * initialBalance, total);
+        assertEquals(accountCount * initialBalance, accountRepository.getTotalBalance());
+        accounts.forEach(account -> assertTrue(account.getBalance() >= 0));
+    }
+
+    @Test
+    public void planReportFollowsAccountChanges() {
+        Account gold = accountRepository.addNewAccount(1, "1234", AccountType.CHECKING_ACCOUNT, AccountPlan.GOLD,
+                accountRepository.getWithdrawLimit(AccountPlan.GOLD), 100.0);
+        Account silver = accountRepository.addNewAccount(2, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.SILVER,
+                accountRepository.getWithdrawLimit(AccountPlan.SILVER), 50.0);
+        accountRepository.addNewAccount(3, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.SILVER,
+                accountRepository.getWithdrawLimit(AccountPlan.SILVER), 25.0);
+
+        accountRepository.withdraw(gold, 150.0);
+        accountRepository.deposit(silver, 10.0);
+        accountRepository.deactivateAccount(silver);
+
+        List<PlanSummary> report = accountRepository.getPlanReport();
+        assertEquals(new PlanSummary(AccountPlan.GOLD, 1, 1, -10000), report.get(AccountPlan.GOLD.ordinal()));
+        assertEquals(new PlanSummary(AccountPlan.SILVER, 2, 1, 8500), report.get(AccountPlan.SILVER.ordinal()));
+        assertEquals(0, report.get(AccountPlan.PLATINUM.ordinal()).accounts());
+        assertEquals(-15.0, accountRepository.getTotalBalance());
+        assertEquals(-100.0, accountRepository.getTotalBalance(AccountType.CHECKING_ACCOUNT));
+        assertEquals(1, accountRepository.getOverdrawnAccountCount());
+    }
+
+    @Test
+    public void concurrentDepositsToSameAccountAreNotLost() throws Exception {
+        User user = userRepository.signUp(SIGNUP_USERNAME1, PASSWORD, FIRSTNAME, LASTNAME);
+        Account account = accountRepository.addNewAccount(user.getId(), "1234", AccountType.CHECKING_ACCOUNT, AccountPlan.GOLD,
+                accountRepository.getWithdrawLimit(AccountPlan.GOLD), 0.0);
+        int threads = 8;
+        int depositsPerThread = 10_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < depositsPerThread; i++) {
+                    account.deposit(0.1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(threads * depositsPerThread / 10.0, account.getBalance());
+    }
+
+    @Test
+    public void saveWritesOnlyChangedAccounts() {
+        Account account1 = accountRepository.addNewAccount(1, "1234", AccountType.CHECKING_ACCOUNT, AccountPlan.GOLD,
+                accountRepository.getWithdrawLimit(AccountPlan.GOLD), 100.0);
+        Account account2 = accountRepository.addNewAccount(2, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.GOLD,
+                accountRepository.getWithdrawLimit(AccountPlan.GOLD), 100.0);
+        accountRepository.writeAccountsIntoFile();
+        assertEquals(0, accountRepository.getPendingChanges());
+        assertEquals(2, accountRepository.getDeltaLogSize());
+
+        accountRepository.writeAccountsIntoFile();
+        assertEquals(2, accountRepository.getDeltaLogSize());
+
+        accountRepository.deposit(account1, 50.0);
+        accountRepository.addNewFavoriteAccount(account1, account2);
+        assertEquals(1, accountRepository.getPendingChanges());
+        accountRepository.writeAccountsIntoFile();
+        assertEquals(3, accountRepository.getDeltaLogSize());
+    }
+
+    @Test
+    public void concurrentRepositoryDepositsAreJournaledAcrossCheckpoints() throws Exception {
+        File dataSource = new File(temporaryDirectory, "accounts.csv");
+        Files.writeString(dataSource.toPath(),
+                "accountNumber,pin,userId,type,plan,balance,withdrawLimit,depositLimit,isActive,overdraftCounter,favoriteAccounts\n");
+        TransactionRepository transactions = new TransactionRepository(new File(temporaryDirectory, "transactions.csv"));
+        AccountRepository repository = new AccountRepository(dataSource, transactions);
+        Account account = repository.addNewAccount(1, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.GOLD,
+                repository.getWithdrawLimit(AccountPlan.GOLD), 0.0);
+        int threads = 4;
+        int depositsPerThread = 250;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < depositsPerThread; i++) {
+                    repository.deposit(account, 1.0);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            while (!future.isDone()) {
+                repository.writeAccountsIntoFile();
+            }
+            future.get();
+        }
+        executor.shutdown();
+        repository.writeAccountsIntoFile();
+
+        assertEquals(threads * depositsPerThread, account.getBalance());
+        assertEquals(threads * depositsPerThread + 1, transactions.getTransactions(account).size());
+        assertEquals(0, repository.getPendingChanges());
+        repository.deposit(account, 1.0);
+        repository.deposit(account, 1.0);
+        assertEquals(1, repository.getPendingChanges());
+        transactions.close();
+    }
+
+    @Test
+    public void deactivatedAccountsCannotMoveMoney() {
+        Account first = accountRepository.addNewAccount(1, "1234", AccountType.CHECKING_ACCOUNT, AccountPlan.GOLD,
+                accountRepository.getWithdrawLimit(AccountPlan.GOLD), 100.0);
+        Account second = accountRepository.addNewAccount(1, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.GOLD,
+                accountRepository.getWithdrawLimit(AccountPlan.GOLD), 100.0);
+        accountRepository.deactivateAccount(first);
+
+        assertSame(second, accountRepository.getActiveUserAccount(1));
+        assertThrows(IllegalArgumentException.class, () -> accountRepository.deposit(first, 10.0));
+        assertThrows(IllegalArgumentException.class, () -> accountRepository.withdraw(first, 10.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> accountRepository.transfer(second.getAccountNumber(), first.getAccountNumber(), 10.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> accountRepository.transfer(first.getAccountNumber(), second.getAccountNumber(), 10.0));
+        assertEquals(100.0, first.getBalance());
+        assertEquals(100.0, second.getBalance());
+
+        accountRepository.deactivateAccount(second);
+        assertThrows(IllegalArgumentException.class, () -> accountRepository.getActiveUserAccount(1));
+    }
+
+    @Test
+    public void userHoldsSeveralAccounts() throws Exception {
+        File dataSource = new File(temporaryDirectory, "accounts.csv");
+        Files.writeString(dataSource.toPath(),
+                "accountNumber,pin,userId,type,plan,balance,withdrawLimit,depositLimit,isActive,overdraftCounter,favoriteAccounts\n");
+        AccountRepository repository = new AccountRepository(dataSource, transactionRepository);
+        Account checking = repository.addNewAccount(1, "1234", AccountType.CHECKING_ACCOUNT, AccountPlan.GOLD,
+                repository.getWithdrawLimit(AccountPlan.GOLD), 100.0);
+        Account savings = repository.addNewAccount(1, "4321", AccountType.SAVINGS_ACCOUNT, AccountPlan.SILVER,
+                repository.getWithdrawLimit(AccountPlan.SILVER), 200.0);
+        repository.addNewAccount(2, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.SILVER,
+                repository.getWithdrawLimit(AccountPlan.SILVER), 300.0);
+
+        assertEquals(3, repository.getSize());
+        assertEquals(2, repository.getUserAccountCount(1));
+        assertSame(checking, repository.getUserAccount(1));
+        assertSame(savings, repository.getUserAccount(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> repository.getUserAccount(1, 2));
+        assertThrows(IllegalArgumentException.class, () -> repository.getUserAccount(3));
+
+        repository.compactAccounts();
+        AccountRepository reloaded = new AccountRepository(dataSource, transactionRepository);
+        assertEquals(3, reloaded.getSize());
+        assertEquals(List.of(checking.getAccountNumber(), savings.getAccountNumber()),
+                reloaded.getUserAccounts(1).stream().map(Account::getAccountNumber).sorted().toList());
+    }
+
+    @Test
+    public void deltaLogIsReplayedAndCompacted() throws Exception {
+        File dataSource = new File(temporaryDirectory, "accounts.csv");
+        Files.writeString(dataSource.toPath(),
+                "accountNumber,pin,userId,type,plan,balance,withdrawLimit,depositLimit,isActive,overdraftCounter,favoriteAccounts\n");
+        AccountRepository repository = new AccountRepository(dataSource, transactionRepository);
+        Account account1 = repository.addNewAccount(1, "1234", AccountType.CHECKING_ACCOUNT, AccountPlan.GOLD,
+                repository.getWithdrawLimit(AccountPlan.GOLD), 100.0);
+        Account account2 = repository.addNewAccount(2, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.SILVER,
+                repository.getWithdrawLimit(AccountPlan.SILVER), 200.0);
+        repository.writeAccountsIntoFile();
+        repository.transfer(account1.getAccountNumber(), account2.getAccountNumber(), 25.0);
+        repository.addNewFavoriteAccount(account2, account1);
+        repository.deactivateAccount(account1);
+        repository.writeAccountsIntoFile();
+
+        AccountRepository reloaded = new AccountRepository(dataSource, transactionRepository);
+        assertEquals(2, reloaded.getSize());
+        assertEquals(75.0, reloaded.getAccount(account1.getAccountNumber()).getBalance());
+        assertFalse(reloaded.getAccount(account1.getAccountNumber()).isActive());
+        assertEquals(225.0, reloaded.getAccount(account2.getAccountNumber()).getBalance());
+        assertEquals(List.of(account1.getAccountNumber()), reloaded.getAccount(account2.getAccountNumber()).getFavoriteAccounts());
+        assertDoesNotThrow(() -> reloaded.getAccount(account2.getAccountNumber()).validatePin("1234"));
+
+        reloaded.deposit(reloaded.getAccount(account2.getAccountNumber()), 10.0);
+        reloaded.writeAccountsIntoFile();
+        reloaded.compactAccounts();
+        assertEquals(0, reloaded.getDeltaLogSize());
+
+        AccountRepository compacted = new AccountRepository(dataSource, transactionRepository);
+        assertEquals(0, compacted.getDeltaLogSize());
+        assertEquals(75.0, compacted.getAccount(account1.getAccountNumber()).getBalance());
+        assertEquals(235.0, compacted.getAccount(account2.getAccountNumber()).getBalance());
+    }
 }
@@ -0,0 +1,223 @@
+package my.bank.repository;
+
+import my.bank.domain.Account;
+import my.bank.domain.AccountPlan;
+import my.bank.domain.AccountType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchTransferEngineTest {
+    private static final int ACCOUNTS = 200;
+    private static final double INITIAL_BALANCE = 1000.0;
+
+    @TempDir
+    File temporaryDirectory;
+
+    private TransactionRepository transactionRepository;
+    private AccountRepository accountRepository;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        File accountsFile = new File(temporaryDirectory, "accounts.csv");
+        Files.writeString(accountsFile.toPath(),
+                "accountNumber,pin,userId,type,plan,balance,withdrawLimit,depositLimit,isActive,overdraftCounter,favoriteAccounts\n");
+        transactionRepository = new TransactionRepository(new File(temporaryDirectory, "transactions.csv"));
+        accountRepository = new AccountRepository(accountsFile, transactionRepository);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transactionRepository.close();
+    }
+
+    @Test
+    public void testReportsOutcomeOfEveryLine() {
+        Account employer = newAccount(1, AccountType.SAVINGS_ACCOUNT, AccountPlan.PLATINUM, 500.0);
+        Account first = newAccount(2, AccountType.SAVINGS_ACCOUNT, AccountPlan.GOLD, 0.0);
+        Account second = newAccount(3, AccountType.SAVINGS_ACCOUNT, AccountPlan.NORMAL, 0.0);
+        Account closed = newAccount(4, AccountType.SAVINGS_ACCOUNT, AccountPlan.GOLD, 0.0);
+        accountRepository.deactivateAccount(closed);
+        String instructions = String.join("\n",
+                "sender,receiver,amount",
+                employer.getAccountNumber() + "," + first.getAccountNumber() + ",200",
+                employer.getAccountNumber() + "," + second.getAccountNumber() + ",150.50",
+                "",
+                employer.getAccountNumber() + "," + first.getAccountNumber() + ",200",
+                employer.getAccountNumber() + ",99999,10",
+                employer.getAccountNumber() + "," + closed.getAccountNumber() + ",10",
+                employer.getAccountNumber() + "," + second.getAccountNumber() + ",1000",
+                first.getAccountNumber() + "," + first.getAccountNumber() + ",5",
+                "not,a,transfer",
+                employer.getAccountNumber() + "," + first.getAccountNumber());
+
+        BatchTransferReport report;
+        try (BatchTransferEngine engine = new BatchTransferEngine(accountRepository)) {
+            report = engine.execute(new BufferedReader(new StringReader(instructions)));
+        }
+
+        assertEquals(9, report.size());
+        assertEquals(2, report.getLineNumber(0));
+        assertEquals(BatchTransferReport.Status.COMPLETED, report.getStatus(0));
+        assertEquals(BatchTransferReport.Status.COMPLETED, report.getStatus(1));
+        assertEquals(5, report.getLineNumber(2));
+        assertEquals(BatchTransferReport.Status.REJECTED, report.getStatus(2));
+        assertEquals("You cannot withdraw an amount more than your current balance.", report.getMessage(2));
+        assertEquals("Invalid receiver account Number", report.getMessage(3));
+        assertEquals(BatchTransferReport.Status.INVALID, report.getStatus(4));
+        assertEquals("deposit limit exceeds.", report.getMessage(5));
+        assertEquals(BatchTransferReport.Status.INVALID, report.getStatus(6));
+        assertEquals("Invalid number format.", report.getMessage(7));
+        assertEquals("Expected sender,receiver,amount.", report.getMessage(8));
+        assertEquals(2, report.getCompleted());
+        assertEquals(1, report.getRejected());
+        assertEquals(6, report.getInvalid());
+
+        assertEquals(149.5, employer.getBalance());
+        assertEquals(200.0, first.getBalance());
+        assertEquals(150.5, second.getBalance());
+        assertEquals(3 + 4, transactionRepository.getTransactions(employer).size()
+                + transactionRepository.getTransactions(first).size()
+                + transactionRepository.getTransactions(second).size());
+    }
+
+    @Test
+    public void testParallelBatchKeepsTotalsAndPerAccountOrder() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(newAccount(i + 1, AccountType.SAVINGS_ACCOUNT, AccountPlan.PLATINUM, INITIAL_BALANCE));
+        }
+        // pairs (2k, 2k + 1) only trade with each other, so each pair is its own component
+        StringBuilder instructions = new StringBuilder();
+        Random random = new Random(7);
+        int lines = 20_000;
+        for (int i = 0; i < lines; i++) {
+            int pair = random.nextInt(ACCOUNTS / 2) * 2;
+            boolean forward = random.nextBoolean();
+            Account sender = accounts.get(forward ? pair : pair + 1);
+            Account receiver = accounts.get(forward ? pair + 1 : pair);
+            instructions.append(sender.getAccountNumber()).append(',').append(receiver.getAccountNumber())
+                    .append(',').append(1 + random.nextInt(300)).append('\n');
+        }
+        File file = new File(temporaryDirectory, "payroll.csv");
+        Files.writeString(file.toPath(), instructions);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BatchTransferReport report;
+        try {
+            report = new BatchTransferEngine(accountRepository, pool).execute(file);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(lines, report.size());
+        assertEquals(lines, report.getCompleted() + report.getRejected());
+        assertEquals(ACCOUNTS * INITIAL_BALANCE, accountRepository.getTotalBalance(), 0.001);
+        assertEquals(ACCOUNTS + 2 * report.getCompleted(), transactionRepository.getSize());
+
+        File reportFile = new File(temporaryDirectory, "payroll.report.csv");
+        report.writeTo(reportFile);
+        assertEquals(lines + 1, Files.readAllLines(reportFile.toPath()).size());
+    }
+
+    @Test
+    public void testOnlyTheExactHeaderIsSkipped() {
+        Account sender = newAccount(1, AccountType.SAVINGS_ACCOUNT, AccountPlan.GOLD, 100.0);
+        Account receiver = newAccount(2, AccountType.SAVINGS_ACCOUNT, AccountPlan.GOLD, 0.0);
+        String transfer = sender.getAccountNumber() + "," + receiver.getAccountNumber() + ",10";
+
+        BatchTransferReport negative = execute("-5," + receiver.getAccountNumber() + ",3\n" + transfer);
+        BatchTransferReport garbage = execute("x,y,z\n" + transfer);
+        BatchTransferReport header = execute("Sender, Receiver, Amount\n" + transfer);
+
+        assertEquals(2, negative.size());
+        assertEquals(1, negative.getLineNumber(0));
+        assertEquals("Invalid sender account Number", negative.getMessage(0));
+        assertEquals(2, garbage.size());
+        assertEquals("Invalid number format.", garbage.getMessage(0));
+        assertEquals(1, header.size());
+        assertEquals(2, header.getLineNumber(0));
+        assertEquals(70.0, sender.getBalance());
+    }
+
+    @Test
+    public void testBalancesAreNeverAheadOfTheJournal() throws Exception {
+        Account sender = newAccount(1, AccountType.SAVINGS_ACCOUNT, AccountPlan.PLATINUM, INITIAL_BALANCE);
+        Account receiver = newAccount(2, AccountType.SAVINGS_ACCOUNT, AccountPlan.PLATINUM, 0.0);
+        StringBuilder instructions = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            instructions.append(sender.getAccountNumber()).append(',').append(receiver.getAccountNumber()).append(",1\n");
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            Future<BatchTransferReport> batch = pool.submit(() -> new BatchTransferEngine(accountRepository, pool)
+                    .execute(new BufferedReader(new StringReader(instructions.toString()))));
+            while (!batch.isDone()) {
+                // every snapshot takes all stripes, the same as a checkpoint does
+                List<Account> snapshot = accountRepository.snapshotAccounts();
+                double received = snapshot.stream().filter(account -> account.getAccountNumber() == receiver.getAccountNumber())
+                        .findFirst().orElseThrow().getBalance();
+                assertTrue(transactionRepository.getTransactions(receiver).size() >= received + 1);
+            }
+            assertEquals(500, batch.get().getCompleted());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testJournalFailureIsReported() throws Exception {
+        File accountsFile = new File(temporaryDirectory, "failing-accounts.csv");
+        Files.writeString(accountsFile.toPath(),
+                "accountNumber,pin,userId,type,plan,balance,withdrawLimit,depositLimit,isActive,overdraftCounter,favoriteAccounts\n");
+        TransactionRepository failingJournal = new TransactionRepository(new File(temporaryDirectory, "failing.csv"));
+        AccountRepository repository = new AccountRepository(accountsFile, failingJournal);
+        Account sender = repository.addNewAccount(1, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.PLATINUM,
+                repository.getWithdrawLimit(AccountPlan.PLATINUM), INITIAL_BALANCE);
+        Account receiver = repository.addNewAccount(2, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.PLATINUM,
+                repository.getWithdrawLimit(AccountPlan.PLATINUM), 0.0);
+        int lines = 5000;
+        StringBuilder instructions = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            instructions.append(sender.getAccountNumber()).append(',').append(receiver.getAccountNumber()).append(",0.01\n");
+        }
+        failingJournal.close();
+
+        BatchTransferReport report;
+        try (BatchTransferEngine engine = new BatchTransferEngine(repository)) {
+            report = engine.execute(new BufferedReader(new StringReader(instructions.toString())));
+        }
+
+        assertEquals(0, report.getCompleted());
+        assertEquals(4096, report.getFailed());
+        assertEquals(lines - 4096, report.getPending());
+        assertEquals(BatchTransferReport.Status.PENDING, report.getStatus(lines - 1));
+        assertTrue(report.getMessage(0).startsWith("The transfer was applied but could not be journaled"));
+        assertEquals(40.96, receiver.getBalance(), 0.001);
+    }
+
+    private BatchTransferReport execute(String instructions) {
+        try (BatchTransferEngine engine = new BatchTransferEngine(accountRepository)) {
+            return engine.execute(new BufferedReader(new StringReader(instructions)));
+        }
+    }
+
+    private Account newAccount(int userId, AccountType type, AccountPlan plan, double initialDeposit) {
+        return accountRepository.addNewAccount(userId, "1234", type, plan, accountRepository.getWithdrawLimit(plan),
+                initialDeposit);
+    }
+}
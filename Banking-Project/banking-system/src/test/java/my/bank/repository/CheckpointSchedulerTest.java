@@ -0,0 +1,144 @@
+package my.bank.repository;
+
+import my.bank.domain.Account;
+import my.bank.domain.AccountPlan;
+import my.bank.domain.AccountType;
+import my.bank.domain.User;
+import my.bank.utils.CsvMapperUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static my.bank.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointSchedulerTest {
+    private static final int ACCOUNTS = 32;
+    private static final double INITIAL_BALANCE = 1000.0;
+
+    @TempDir
+    File temporaryDirectory;
+
+    private File usersFile;
+    private File accountsFile;
+    private TransactionRepository transactionRepository;
+    private UserRepository userRepository;
+    private AccountRepository accountRepository;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        usersFile = new File(temporaryDirectory, "users.csv");
+        accountsFile = new File(temporaryDirectory, "accounts.csv");
+        Files.writeString(usersFile.toPath(), "id,username,password,firstName,lastName,type,isActive\n");
+        Files.writeString(accountsFile.toPath(),
+                "accountNumber,pin,userId,type,plan,balance,withdrawLimit,depositLimit,isActive,overdraftCounter,favoriteAccounts\n");
+        transactionRepository = new TransactionRepository(new File(temporaryDirectory, "transactions.csv"));
+        userRepository = new UserRepository(usersFile);
+        accountRepository = new AccountRepository(accountsFile, transactionRepository);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transactionRepository.close();
+    }
+
+    @Test
+    public void testCheckpointWritesAllRepositories() {
+        User user = userRepository.signUp(SIGNUP_USERNAME1, PASSWORD, FIRSTNAME, LASTNAME);
+        Account account = accountRepository.addNewAccount(user.getId(), "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.GOLD,
+                accountRepository.getWithdrawLimit(AccountPlan.GOLD), 100.0);
+        accountRepository.deposit(account, 50.0);
+
+        CheckpointScheduler scheduler = new CheckpointScheduler(userRepository, accountRepository, transactionRepository,
+                Duration.ofMinutes(1));
+        scheduler.checkpoint();
+
+        assertEquals(0, accountRepository.getPendingChanges());
+        assertEquals(1, accountRepository.getDeltaLogSize());
+        assertEquals(0, userRepository.getPendingChanges());
+        assertEquals(1, new UserRepository(usersFile).getSize());
+        AccountRepository reloaded = new AccountRepository(accountsFile, transactionRepository);
+        assertEquals(150.0, reloaded.getAccount(account.getAccountNumber()).getBalance());
+        assertEquals(2, new TransactionRepository(new File(temporaryDirectory, "transactions.csv")).getSize());
+        assertEquals(1, scheduler.getCompletedCheckpoints());
+    }
+
+    @Test
+    public void testBackgroundCheckpointsAreConsistentDuringTransfers() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(accountRepository.addNewAccount(i + 1, "1234", AccountType.SAVINGS_ACCOUNT, AccountPlan.PLATINUM,
+                    accountRepository.getWithdrawLimit(AccountPlan.PLATINUM), INITIAL_BALANCE));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread transfers = Thread.ofPlatform().start(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running.get()) {
+                Account sender = accounts.get(random.nextInt(ACCOUNTS));
+                Account receiver = accounts.get(random.nextInt(ACCOUNTS));
+                try {
+                    accountRepository.transfer(sender.getAccountNumber(), receiver.getAccountNumber(), random.nextInt(1, 100));
+                } catch (IllegalArgumentException e) {
+                    // insufficient balance, the transfer is rejected as a whole
+                }
+            }
+        });
+
+        try (CheckpointScheduler scheduler = new CheckpointScheduler(userRepository, accountRepository, transactionRepository,
+                Duration.ofMillis(20))) {
+            scheduler.checkpoint();
+            scheduler.start();
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (scheduler.getCompletedCheckpoints() < 6 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+                synchronized (scheduler) {
+                    assertEquals(ACCOUNTS * INITIAL_BALANCE, totalBalance(accountsFile), 0.001);
+                }
+            }
+            assertTrue(scheduler.getCompletedCheckpoints() >= 6);
+            running.set(false);
+            transfers.join();
+        }
+
+        assertEquals(ACCOUNTS * INITIAL_BALANCE, totalBalance(accountsFile), 0.001);
+        assertEquals(0, accountRepository.getPendingChanges());
+    }
+
+    @Test
+    public void testCheckpointSkipsUnchangedFiles() throws Exception {
+        userRepository.signUp(SIGNUP_USERNAME1, PASSWORD, FIRSTNAME, LASTNAME);
+        CheckpointScheduler scheduler = new CheckpointScheduler(userRepository, accountRepository, transactionRepository,
+                Duration.ofMinutes(1));
+        scheduler.checkpoint();
+        Files.delete(usersFile.toPath());
+        long deltaSize = Files.size(new File(accountsFile.getPath() + ".delta").toPath());
+
+        scheduler.checkpoint();
+
+        assertFalse(usersFile.exists());
+        assertEquals(deltaSize, Files.size(new File(accountsFile.getPath() + ".delta").toPath()));
+    }
+
+    // The persisted book is the compacted CSV with the delta log replayed over it.
+    private static double totalBalance(File accountsFile) throws Exception {
+        Map<Integer, Double> balances = new HashMap<>();
+        for (File file : List.of(accountsFile, new File(accountsFile.getPath() + ".delta"))) {
+            if (file.exists()) {
+                List<Account> accounts = CsvMapperUtils.readerFor(Account.class).<Account>readValues(file).readAll();
+                accounts.forEach(account -> balances.put(account.getAccountNumber(), account.getBalance()));
+            }
+        }
+        return balances.values().stream().mapToDouble(Double::doubleValue).sum();
+    }
+}
@@ -0,0 +1,11 @@
+package my.bank.repository;
+
+public class RepositoryTestSupport {
+
+    public static void clear(UserRepository userRepository, AccountRepository accountRepository,
+                             TransactionRepository transactionRepository) {
+        userRepository.clear();
+        accountRepository.clear();
+        transactionRepository.clear();
+    }
+}
@@ -8,9 +8,17 @@ import my.bank.domain.TransactionType;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -60,6 +68,202 @@ class TransactionRepositoryTest {
         assertEquals(2, transactionRepository.getSize());
     }
 
+    @Test
+    public void testGetTransactionsOnlyReturnsAccountHistoryInOrder() {
+        account = new CheckingAccount();
+        account.setAccountNumber(1);
+        Account otherAccount = new CheckingAccount();
+        otherAccount.setAccountNumber(2);
+        transactionRepository.addTransaction(account, TransactionType.CREDIT, 100);
+        transactionRepository.addTransaction(otherAccount, TransactionType.CREDIT, 200);
+        transactionRepository.addTransaction(account, TransactionType.DEBIT, 30);
+
+        List<Transaction> transactions = transactionRepository.getTransactions(account);
+        assertEquals(2, transactions.size());
+        assertEquals(100, transactions.get(0).getAmount());
+        assertEquals(30, transactions.get(1).getAmount());
+        assertEquals(1, transactionRepository.getTransactions(otherAccount).size());
+    }
+
+    @Test
+    public void testGetTransactionsByAccountAndDateRange() {
+        account = new CheckingAccount();
+        account.setAccountNumber(1);
+        transactionRepository.addTransaction(account, TransactionType.CREDIT, 100);
+        transactionRepository.addTransaction(account, TransactionType.DEBIT, 30);
+        LocalDate today = LocalDate.now();
+
+        assertEquals(2, transactionRepository.getTransactions(account, today.minusDays(1), today.plusDays(1)).size());
+        assertEquals(0, transactionRepository.getTransactions(account, today.minusDays(10), today.minusDays(5)).size());
+        assertEquals(0, transactionRepository.getTransactions(account, today.plusDays(1), today.plusDays(2)).size());
+    }
+
+    @Test
+    public void testDateRangeBoundariesAreExclusive() {
+        AccountTransactionLog log = new AccountTransactionLog();
+        LocalDateTime midnight = LocalDate.parse("2024-12-14").atStartOfDay();
+        log.add(transactionAt(midnight.plusNanos(500)));
+        log.add(transactionAt(midnight));
+        log.add(transactionAt(midnight.plusHours(5)));
+        log.add(transactionAt(midnight.plusDays(1)));
+
+        assertEquals(midnight, log.getTransactions().get(0).getTimestamp());
+        List<Transaction> transactions = log.getTransactions(midnight, midnight.plusDays(1));
+        assertEquals(2, transactions.size());
+        assertEquals(midnight.plusNanos(500), transactions.get(0).getTimestamp());
+        assertEquals(midnight.plusHours(5), transactions.get(1).getTimestamp());
+    }
+
+    @Test
+    public void testJournalIsReplayedOnStartup(@TempDir Path directory) throws Exception {
+        File dataSource = directory.resolve("transactions.csv").toFile();
+        account = new CheckingAccount();
+        account.setAccountNumber(1);
+
+        TransactionRepository repository = new TransactionRepository(dataSource);
+        repository.addTransaction(account, TransactionType.CREDIT, 100);
+        repository.addTransaction(account, TransactionType.DEBIT, 30);
+        repository.close();
+
+        TransactionRepository replayed = new TransactionRepository(dataSource);
+        List<Transaction> transactions = replayed.getTransactions(account);
+        assertEquals(2, transactions.size());
+        assertEquals(TransactionType.DEBIT, transactions.get(1).getType());
+        assertEquals(30, transactions.get(1).getAmount());
+        replayed.close();
+    }
+
+    @Test
+    public void testBatchIsJournaledAndReplayed(@TempDir Path directory) throws Exception {
+        File dataSource = directory.resolve("transactions.csv").toFile();
+        account = new CheckingAccount();
+        account.setAccountNumber(1);
+
+        TransactionRepository repository = new TransactionRepository(dataSource);
+        repository.addTransactions(List.of(
+                TransactionRepository.newTransaction(account, TransactionType.CREDIT, 100),
+                TransactionRepository.newTransaction(account, TransactionType.DEBIT, 30),
+                TransactionRepository.newTransaction(account, TransactionType.DEBIT, 20)));
+        assertEquals(3, repository.getSize());
+        repository.close();
+
+        TransactionRepository replayed = new TransactionRepository(dataSource);
+        List<Transaction> transactions = replayed.getTransactions(account);
+        assertEquals(3, transactions.size());
+        assertEquals(20, transactions.get(2).getAmount());
+        replayed.close();
+    }
+
+    @Test
+    public void testTornJournalRecordIsDiscarded(@TempDir Path directory) throws Exception {
+        File dataSource = directory.resolve("transactions.csv").toFile();
+        account = new CheckingAccount();
+        account.setAccountNumber(1);
+
+        TransactionRepository repository = new TransactionRepository(dataSource);
+        repository.addTransaction(account, TransactionType.CREDIT, 100);
+        repository.close();
+        Files.writeString(dataSource.toPath(), "1,\"2024-12-14T10:1", StandardOpenOption.APPEND);
+
+        TransactionRepository replayed = new TransactionRepository(dataSource);
+        assertEquals(1, replayed.getTransactions(account).size());
+        replayed.addTransaction(account, TransactionType.DEBIT, 30);
+        replayed.close();
+
+        assertEquals(3, Files.readAllLines(dataSource.toPath()).size());
+    }
+
+    @Test
+    public void testLedgerCountOnlyCoversCommittedRecords(@TempDir Path directory) throws Exception {
+        File ledgerFile = directory.resolve("transactions.ledger").toFile();
+        account = new CheckingAccount();
+        account.setAccountNumber(1);
+
+        TransactionRepository repository = new TransactionRepository(ledgerFile, TransactionJournal.FsyncPolicy.BATCHED, 3);
+        repository.addTransaction(account, TransactionType.CREDIT, 100);
+        repository.addTransaction(account, TransactionType.DEBIT, 30);
+        assertEquals(2, repository.getSize());
+        assertEquals(0, ledgerCount(ledgerFile));
+        repository.addTransaction(account, TransactionType.DEBIT, 20);
+        assertEquals(3, ledgerCount(ledgerFile));
+        repository.addTransaction(account, TransactionType.DEBIT, 10);
+        repository.saveTransactions();
+        assertEquals(4, ledgerCount(ledgerFile));
+        repository.close();
+
+        TransactionRepository always = new TransactionRepository(ledgerFile);
+        always.addTransaction(account, TransactionType.CREDIT, 5);
+        assertEquals(5, ledgerCount(ledgerFile));
+        assertEquals(5, always.getTransactions(account).size());
+        always.close();
+    }
+
+    private static long ledgerCount(File ledgerFile) throws Exception {
+        try (FileChannel channel = FileChannel.open(ledgerFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            channel.read(header, 0);
+            return header.getLong(8);
+        }
+    }
+
+    @Test
+    public void testLedgerServesConvertedTransactions(@TempDir Path directory) throws Exception {
+        File csvFile = directory.resolve("transactions.csv").toFile();
+        Files.writeString(csvFile.toPath(), """
+                accountNumber,timeStamp,type,amount
+                10001,"2024-12-14T10:18:34.929333823",CREDIT,10000.0
+                10002,"2024-12-14T10:19:07.406474332",CREDIT,100.0
+                10001,"2024-12-15T09:00:00",DEBIT,1200.5
+                """);
+        File ledgerFile = directory.resolve("transactions.ledger").toFile();
+        assertEquals(3, TransactionLedger.convertFromCsv(csvFile, ledgerFile));
+
+        account = new CheckingAccount();
+        account.setAccountNumber(10001);
+        TransactionRepository repository = new TransactionRepository(ledgerFile);
+        List<Transaction> transactions = repository.getTransactions(account);
+        assertEquals(2, transactions.size());
+        assertEquals(LocalDateTime.parse("2024-12-14T10:18:34.929333823"), transactions.get(0).getTimestamp());
+        assertEquals(TransactionType.DEBIT, transactions.get(1).getType());
+        assertEquals(1200.5, transactions.get(1).getAmount());
+        assertEquals(1, repository.getTransactions(account, LocalDate.parse("2024-12-15"), LocalDate.parse("2024-12-16")).size());
+
+        repository.addTransaction(account, TransactionType.CREDIT, 20);
+        repository.close();
+
+        TransactionRepository reopened = new TransactionRepository(ledgerFile);
+        assertEquals(4, reopened.getSize());
+        assertEquals(3, reopened.getTransactions(account).size());
+        reopened.close();
+    }
+
+    @Test
+    public void testSummarizeStreamsAggregates(@TempDir Path directory) throws Exception {
+        File csvFile = directory.resolve("transactions.csv").toFile();
+        Files.writeString(csvFile.toPath(), """
+                accountNumber,timeStamp,type,amount
+                10001,"2024-12-14T10:18:34.929333823",CREDIT,10000.0
+                10002,"2024-12-14T10:19:07.406474332",CREDIT,100.0
+                10001,"2024-12-15T09:00:00",DEBIT,1200.0
+                """);
+
+        TransactionSummary summary = TransactionRepository.summarize(csvFile);
+        assertEquals(3, summary.getTransactionCount());
+        assertEquals(8800.0, summary.getBalance(10001));
+        assertEquals(100.0, summary.getBalance(10002));
+        assertEquals(10100.0, summary.getDailyTotals().get(LocalDate.parse("2024-12-14")).getCredits());
+        assertEquals(1200.0, summary.getDailyTotals().get(LocalDate.parse("2024-12-15")).getDebits());
+    }
+
+    private Transaction transactionAt(LocalDateTime timestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountNumber(1);
+        transaction.setTimestamp(timestamp);
+        transaction.setType(TransactionType.CREDIT);
+        transaction.setAmount(10);
+        return transaction;
+    }
+
 
 //    @Test
 //    public void testGetTransactionsByAccountAndDate() {
@@ -0,0 +1,35 @@
+package my.bank.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserAccountIndexTest {
+
+    @Test
+    public void testKeepsAccountsInOpeningOrder() {
+        UserAccountIndex index = new UserAccountIndex();
+        for (int accountNumber = 10001; accountNumber <= 13000; accountNumber++) {
+            index.add(7, accountNumber);
+        }
+        index.add(8, 20000);
+
+        assertEquals(3000, index.count(7));
+        assertEquals(10001, index.accountNumberAt(7, 0));
+        assertEquals(13000, index.accountNumberAt(7, 2999));
+        assertArrayEquals(new int[]{20000}, index.accountNumbers(8));
+        assertEquals(3001, index.size());
+        assertThrows(IllegalArgumentException.class, () -> index.accountNumberAt(7, 3000));
+    }
+
+    @Test
+    public void testUnknownUserHasNoAccounts() {
+        UserAccountIndex index = new UserAccountIndex();
+        index.add(1, 10001);
+        index.clear();
+
+        assertEquals(0, index.count(1));
+        assertEquals(0, index.accountNumbers(1).length);
+        assertThrows(IllegalArgumentException.class, () -> index.accountNumberAt(1, 0));
+    }
+}
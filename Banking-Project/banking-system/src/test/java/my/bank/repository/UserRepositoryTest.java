@@ -1,18 +1,26 @@
 package my.bank.repository;
 
 import lombok.SneakyThrows;
+import my.bank.domain.PasswordHashing;
 import my.bank.domain.User;
 import my.bank.domain.UserType;
 import my.bank.exception.InvalidUserNameException;
 import my.bank.exception.LoginFailedException;
 import my.bank.exception.SignupFailedException;
 import my.bank.exception.UserLockedException;
+import my.bank.security.HashingEngine;
+import my.bank.security.LoginThrottle;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static my.bank.TestFixtures.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -74,6 +82,14 @@ class UserRepositoryTest {
         assertThrows(LoginFailedException.class, () -> userRepository.login(SIGNUP_USERNAME1, wrongPassword));
     }
 
+    @Test
+    public void testUserInfoForNewUser() {
+        User newUser = userRepository.signUp(SIGNUP_USERNAME1, PASSWORD, FIRSTNAME, LASTNAME);
+
+        assertEquals(FIRSTNAME + " " + LASTNAME, userRepository.getUserInfo(newUser.getId()));
+        assertThrows(IllegalArgumentException.class, () -> userRepository.getUserInfo(newUser.getId() + 1));
+    }
+
     @Test
     public void testLoginLimit() {
         User newUser = userRepository.signUp(SIGNUP_USERNAME1, PASSWORD, FIRSTNAME, LASTNAME);
@@ -86,6 +102,28 @@ class UserRepositoryTest {
         assertThrows(UserLockedException.class, () -> userRepository.login(SIGNUP_USERNAME1, wrongPassword));
     }
 
+    @Test
+    @SneakyThrows
+    public void testLockoutExpiresAndSkipsHashing() {
+        AtomicLong clock = new AtomicLong();
+        LoginThrottle loginThrottle = new LoginThrottle(3, 10, Duration.ofMinutes(15), clock::get);
+        UserRepository repository = new UserRepository(new File(getClass().getClassLoader().getResource("users.csv").toURI()),
+                loginThrottle);
+        repository.signUp(SIGNUP_USERNAME1, PASSWORD, FIRSTNAME, LASTNAME);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(LoginFailedException.class, () -> repository.login(SIGNUP_USERNAME1, "Wrong1234", "10.0.0.1"));
+        }
+        long verifications = HashingEngine.getInstance().getVerifyCount();
+        assertThrows(UserLockedException.class, () -> repository.login(SIGNUP_USERNAME1, PASSWORD, "10.0.0.1"));
+        assertEquals(verifications, HashingEngine.getInstance().getVerifyCount());
+
+        clock.addAndGet(Duration.ofMinutes(16).toMillis());
+        assertNotNull(repository.login(SIGNUP_USERNAME1, PASSWORD, "10.0.0.1"));
+        assertEquals(0, loginThrottle.getUserFailures(SIGNUP_USERNAME1));
+        assertEquals(0, loginThrottle.getSourceFailures("10.0.0.1"));
+    }
+
     @Test
     public void testResetPassword() {
         userRepository.signUp(SIGNUP_USERNAME1, PASSWORD, FIRSTNAME, LASTNAME);
@@ -106,6 +144,61 @@ class UserRepositoryTest {
 
     }
 
+    @Test
+    public void testRenameUpdatesSearch() {
+        User user = userRepository.signUp(SIGNUP_USERNAME1, PASSWORD, FIRSTNAME, LASTNAME);
+
+        userRepository.renameUser(user, "Zelda", "Quinn");
+        assertThrows(IllegalArgumentException.class, () -> userRepository.renameUser(user, " ", "Quinn"));
+
+        assertFalse(userRepository.searchUsers(UserSearchIndex.Field.FIRST_NAME, FIRSTNAME, null, 100).users().contains(user));
+        assertFalse(userRepository.searchUsers(UserSearchIndex.Field.LAST_NAME, LASTNAME, null, 100).users().contains(user));
+        assertTrue(userRepository.searchUsers(UserSearchIndex.Field.FIRST_NAME, "zelda", null, 100).users().contains(user));
+        assertEquals(1, userRepository.searchUsers(null, "quinn", null, 100).users().stream().filter(user::equals).count());
+    }
+
+    @Test
+    public void testFailedCheckpointKeepsChangesPending(@TempDir Path directory) throws Exception {
+        Path dataDirectory = Files.createDirectory(directory.resolve("data"));
+        File usersFile = dataDirectory.resolve("users.csv").toFile();
+        Files.writeString(usersFile.toPath(), "id,username,password,firstName,lastName,type,isActive\n");
+        UserRepository repository = new UserRepository(usersFile);
+        repository.signUp(SIGNUP_USERNAME1, PASSWORD, FIRSTNAME, LASTNAME);
+        assertEquals(1, repository.getPendingChanges());
+
+        Files.delete(usersFile.toPath());
+        Files.delete(dataDirectory);
+        assertThrows(Exception.class, repository::checkpoint);
+        assertEquals(1, repository.getPendingChanges());
+
+        Files.createDirectory(dataDirectory);
+        repository.checkpoint();
+        assertEquals(0, repository.getPendingChanges());
+        assertTrue(Files.readString(usersFile.toPath()).contains(SIGNUP_USERNAME1));
+    }
+
+    @Test
+    public void testPasswordUpgradeIsCheckpointed(@TempDir Path directory) throws Exception {
+        File usersFile = directory.resolve("users.csv").toFile();
+        String legacyHash = PasswordHashing.hashPasswordSHA1(PASSWORD);
+        Files.writeString(usersFile.toPath(), "id,username,password,firstName,lastName,type,isActive\n"
+                + "1," + SIGNUP_USERNAME1 + "," + legacyHash + "," + FIRSTNAME + "," + LASTNAME + ",CUSTOMER,true\n");
+        UserRepository repository = new UserRepository(usersFile);
+        assertEquals(0, repository.getPendingChanges());
+
+        repository.login(SIGNUP_USERNAME1, PASSWORD);
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (repository.getPendingChanges() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, repository.getPendingChanges());
+        repository.checkpoint();
+
+        assertEquals(0, repository.getPendingChanges());
+        assertFalse(Files.readString(usersFile.toPath()).contains(legacyHash));
+        assertNotNull(new UserRepository(usersFile).login(SIGNUP_USERNAME1, PASSWORD));
+    }
+
 //    @Test
 //    public void testWriteUsersIntoFile() {
 //        userRepository.signUp(SIGNUP_USERNAME1, PASSWORD);
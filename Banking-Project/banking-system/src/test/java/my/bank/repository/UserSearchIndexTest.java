@@ -0,0 +1,84 @@
+package my.bank.repository;
+
+import my.bank.domain.User;
+import my.bank.domain.UserType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchIndexTest {
+
+    @Test
+    public void testPrefixSearchIsCaseInsensitiveAndSorted() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.add(user(1, "maryam", "Maryam", "Ghasemi"));
+        index.add(user(2, "mark", "Mark", "Miller"));
+        index.add(user(3, "john", "John", "Marlow"));
+        index.add(user(4, "marco", "Marco", "Polo"));
+        User employee = user(5, "martin", "Martin", "Evans");
+        employee.setType(UserType.EMPLOYEE);
+        index.add(employee);
+
+        assertEquals(List.of("marco", "mark", "maryam"), usernames(index.search(UserSearchIndex.Field.USERNAME, "MAR", null, 10)));
+        assertEquals(List.of("john"), usernames(index.search(UserSearchIndex.Field.LAST_NAME, "marl", null, 10)));
+        assertTrue(index.search(UserSearchIndex.Field.FIRST_NAME, "z", null, 10).users().isEmpty());
+        assertEquals(List.of("marco", "mark", "maryam", "john"), usernames(index.searchAnyField("mar", null, 10)));
+    }
+
+    @Test
+    public void testPagingAndDuplicateNames() {
+        UserSearchIndex index = new UserSearchIndex();
+        for (int id = 1; id <= 25; id++) {
+            index.add(user(id, "user" + id, "Alex", "Smith"));
+        }
+
+        UserSearchIndex.Page first = index.search(UserSearchIndex.Field.LAST_NAME, "smith", null, 10);
+        UserSearchIndex.Page second = index.search(UserSearchIndex.Field.LAST_NAME, "smith", first.next(), 10);
+        UserSearchIndex.Page last = index.search(UserSearchIndex.Field.LAST_NAME, "smith", second.next(), 10);
+
+        assertEquals(10, first.users().size());
+        assertTrue(first.hasMore());
+        assertEquals(10, second.users().size());
+        assertFalse(second.users().contains(first.users().get(9)));
+        assertEquals(5, last.users().size());
+        assertFalse(last.hasMore());
+        assertEquals(25, index.searchAnyField("", null, 100).users().size());
+        assertThrows(IllegalArgumentException.class,
+                () -> index.search(UserSearchIndex.Field.LAST_NAME, "jones", first.next(), 10));
+
+        index.remove(first.users().get(0));
+        assertEquals(24, index.search(UserSearchIndex.Field.FIRST_NAME, "alex", null, 100).users().size());
+    }
+
+    @Test
+    public void testAnyFieldPagingAcrossFields() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.add(user(1, "sam", "Sam", "Samson"));
+        index.add(user(2, "alex", "Sandra", "Brown"));
+        index.add(user(3, "bob", "Bob", "Sanders"));
+
+        UserSearchIndex.Page first = index.searchAnyField("sa", null, 2);
+        UserSearchIndex.Page second = index.searchAnyField("sa", first.next(), 2);
+
+        assertEquals(List.of("sam", "alex"), usernames(first));
+        assertTrue(first.hasMore());
+        assertEquals(List.of("bob"), usernames(second));
+        assertFalse(second.hasMore());
+    }
+
+    private static User user(int id, String username, String firstName, String lastName) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setType(UserType.CUSTOMER);
+        return user;
+    }
+
+    private static List<String> usernames(UserSearchIndex.Page page) {
+        return page.users().stream().map(User::getUsername).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package my.bank.repository;
+
+import my.bank.domain.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserStoreTest {
+
+    @Test
+    public void testLookupsByUsernameAndId() {
+        UserStore userStore = new UserStore();
+        User user = user(7, "user7");
+
+        assertTrue(userStore.add(user));
+        assertFalse(userStore.add(user(8, "user7")));
+        assertFalse(userStore.add(user(7, "other")));
+
+        assertSame(user, userStore.getByUsername("user7"));
+        assertSame(user, userStore.getById(7));
+        assertNull(userStore.getById(8));
+        assertNull(userStore.getById(-1));
+        assertNull(userStore.getById(1 << 20));
+        assertEquals(1, userStore.size());
+        assertEquals(7, userStore.getMaxId());
+    }
+
+    @Test
+    public void testConcurrentAddsGrowTheIdSlots() throws Exception {
+        UserStore userStore = new UserStore();
+        AtomicInteger ids = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        int id = ids.incrementAndGet();
+                        assertTrue(userStore.add(user(id, "user" + id)));
+                    }
+                });
+            }
+        }
+
+        List<User> users = userStore.values();
+        assertEquals(16_000, users.size());
+        for (int i = 0; i < users.size(); i++) {
+            assertEquals(i + 1, users.get(i).getId());
+            assertSame(users.get(i), userStore.getByUsername("user" + (i + 1)));
+        }
+
+        userStore.clear();
+        assertEquals(0, userStore.size());
+        assertNull(userStore.getById(1));
+    }
+
+    private static User user(int id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,95 @@
+package my.bank.security;
+
+import my.bank.domain.PasswordHashing;
+import my.bank.domain.User;
+import my.bank.exception.HashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static my.bank.TestFixtures.PASSWORD;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashingEngineTest {
+    private HashingEngine hashingEngine;
+
+    @BeforeEach
+    public void setup() {
+        hashingEngine = new HashingEngine(new BCryptPasswordHasher(4), List.of(new Sha1PasswordHasher()), 2, 16);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        hashingEngine.close();
+    }
+
+    @Test
+    public void testHashAndVerify() {
+        String hash = hashingEngine.hash(PASSWORD);
+
+        assertTrue(hash.startsWith("$2"));
+        assertTrue(hashingEngine.verify(PASSWORD, hash));
+        assertFalse(hashingEngine.verify("Wrong1234", hash));
+        assertFalse(hashingEngine.needsRehash(hash));
+        assertEquals(1, hashingEngine.getHashCount());
+        assertEquals(2, hashingEngine.getVerifyCount());
+        assertTrue(hashingEngine.getMaxLatencyMillis() > 0);
+    }
+
+    @Test
+    public void testLegacyHashesAreVerifiedAndFlaggedForRehash() {
+        String legacyHash = PasswordHashing.hashPasswordSHA1(PASSWORD);
+
+        assertTrue(hashingEngine.verify(PASSWORD, legacyHash));
+        assertTrue(hashingEngine.needsRehash(legacyHash));
+        assertTrue(new BCryptPasswordHasher(5).needsRehash(hashingEngine.hash(PASSWORD)));
+        assertFalse(hashingEngine.verify(PASSWORD, "not-a-hash"));
+    }
+
+    @Test
+    public void testLegacyUserPasswordIsUpgradedOnLogin() {
+        User user = new User();
+        user.setPassword(PasswordHashing.hashPasswordSHA1(PASSWORD));
+
+        assertTrue(user.matchPassword(PASSWORD));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!user.getPassword().startsWith("$2") && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(user.getPassword().startsWith("$2"));
+        assertTrue(user.matchPassword(PASSWORD));
+        assertFalse(user.matchPassword("Wrong1234"));
+    }
+
+    @Test
+    public void testSaturatedPoolRejectsRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHasher blockingHasher = new BCryptPasswordHasher(4) {
+            @Override
+            public String hash(String rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.hash(rawPassword);
+            }
+        };
+        try (HashingEngine saturated = new HashingEngine(blockingHasher, List.of(), 1, 1)) {
+            CompletableFuture<String> running = saturated.hashAsync(PASSWORD);
+            CompletableFuture<String> queued = saturated.hashAsync(PASSWORD);
+
+            assertThrows(HashingBusyException.class, () -> saturated.hashAsync(PASSWORD));
+
+            release.countDown();
+            assertTrue(blockingHasher.matches(PASSWORD, running.get()));
+            assertTrue(blockingHasher.matches(PASSWORD, queued.get()));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package my.bank.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+    private static final String USERNAME = "user3";
+    private static final String SOURCE = "10.0.0.1";
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final LoginThrottle loginThrottle = new LoginThrottle(3, 5, Duration.ofMinutes(16), clock::get);
+
+    @Test
+    public void testUserIsLockedAfterMaxFailuresAndUnlockedOnSuccess() {
+        for (int i = 0; i < 3; i++) {
+            assertFalse(loginThrottle.isUserLocked(USERNAME));
+            loginThrottle.recordFailure(USERNAME, SOURCE);
+        }
+        assertTrue(loginThrottle.isUserLocked(USERNAME));
+        assertFalse(loginThrottle.isSourceLocked(SOURCE));
+        assertEquals(1, loginThrottle.getRejectedAttempts());
+
+        loginThrottle.recordSuccess(USERNAME);
+        assertFalse(loginThrottle.isUserLocked(USERNAME));
+    }
+
+    @Test
+    public void testFailuresSlideOutOfTheWindow() {
+        loginThrottle.recordFailure(USERNAME, null);
+        clock.addAndGet(Duration.ofMinutes(10).toMillis());
+        loginThrottle.recordFailure(USERNAME, null);
+        loginThrottle.recordFailure(USERNAME, null);
+        assertTrue(loginThrottle.isUserLocked(USERNAME));
+
+        clock.addAndGet(Duration.ofMinutes(7).toMillis());
+        assertEquals(2, loginThrottle.getUserFailures(USERNAME));
+        assertFalse(loginThrottle.isUserLocked(USERNAME));
+
+        clock.addAndGet(Duration.ofMinutes(10).toMillis());
+        assertEquals(0, loginThrottle.getUserFailures(USERNAME));
+        loginThrottle.purgeExpired();
+        assertEquals(0, loginThrottle.getTrackedIdentities());
+    }
+
+    @Test
+    public void testSourceIsLockedAcrossUsernames() {
+        for (int i = 0; i < 5; i++) {
+            loginThrottle.recordFailure("user" + i, SOURCE);
+        }
+        assertTrue(loginThrottle.isSourceLocked(SOURCE));
+        assertFalse(loginThrottle.isSourceLocked("10.0.0.2"));
+        assertFalse(loginThrottle.isSourceLocked(null));
+        assertFalse(loginThrottle.isUserLocked("user0"));
+    }
+
+    @Test
+    public void testConcurrentFailuresAreAllCounted() throws Exception {
+        LoginThrottle throttle = new LoginThrottle(100_000, 100_000, Duration.ofMinutes(16), clock::get);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        throttle.recordFailure(USERNAME, SOURCE);
+                    }
+                });
+            }
+        }
+        assertEquals(8000, throttle.getUserFailures(USERNAME));
+        assertEquals(8000, throttle.getSourceFailures(SOURCE));
+    }
+}
@@ -0,0 +1,70 @@
+package my.bank.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final SessionManager sessionManager = new SessionManager(Duration.ofMinutes(30), Duration.ofMinutes(5), clock::get);
+
+    @Test
+    public void testIssuedTokensAreUniqueAndValid() {
+        String first = sessionManager.issue(1);
+        String second = sessionManager.issue(1);
+
+        assertNotEquals(first, second);
+        assertEquals(1, sessionManager.validate(first).orElseThrow().getUserId());
+        assertTrue(sessionManager.validate("unknown").isEmpty());
+        assertTrue(sessionManager.validate(null).isEmpty());
+    }
+
+    @Test
+    public void testPinVerificationIsRememberedPerAccount() {
+        String token = sessionManager.issue(1);
+        SessionManager.Session session = sessionManager.validate(token).orElseThrow();
+        assertFalse(session.isPinVerified(10001));
+
+        session.markPinVerified(10001);
+
+        assertTrue(sessionManager.validate(token).orElseThrow().isPinVerified(10001));
+        assertFalse(session.isPinVerified(10002));
+    }
+
+    @Test
+    public void testIdleTimeoutAndTtl() {
+        String token = sessionManager.issue(1);
+        for (int i = 0; i < 7; i++) {
+            clock.addAndGet(Duration.ofMinutes(4).toMillis());
+            assertTrue(sessionManager.validate(token).isPresent());
+        }
+        clock.addAndGet(Duration.ofMinutes(4).toMillis());
+        assertTrue(sessionManager.validate(token).isEmpty());
+
+        String idle = sessionManager.issue(1);
+        clock.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertTrue(sessionManager.validate(idle).isEmpty());
+        assertEquals(0, sessionManager.getActiveSessions());
+    }
+
+    @Test
+    public void testInvalidation() {
+        String token = sessionManager.issue(1);
+        String other = sessionManager.issue(1);
+        String unrelated = sessionManager.issue(2);
+
+        sessionManager.invalidate(token);
+        assertTrue(sessionManager.validate(token).isEmpty());
+
+        sessionManager.invalidateUser(1);
+        assertTrue(sessionManager.validate(other).isEmpty());
+        assertTrue(sessionManager.validate(unrelated).isPresent());
+
+        clock.addAndGet(Duration.ofMinutes(6).toMillis());
+        sessionManager.purgeExpired();
+        assertEquals(0, sessionManager.getActiveSessions());
+    }
+}
@@ -0,0 +1,195 @@
+package my.bank.server;
+
+import lombok.SneakyThrows;
+import my.bank.repository.AccountRepository;
+import my.bank.repository.RepositoryTestSupport;
+import my.bank.repository.TransactionRepository;
+import my.bank.repository.UserRepository;
+import my.bank.security.LoginThrottle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static my.bank.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionServerTest {
+    private static final int CONCURRENT_SESSIONS = 1000;
+
+    private UserRepository userRepository;
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private SessionServer server;
+
+    @BeforeEach
+    @SneakyThrows
+    public void setup() {
+        URI transactionsFilePath = getClass().getClassLoader().getResource("transactions.csv").toURI();
+        transactionRepository = TransactionRepository.getInstance(new File(transactionsFilePath));
+        URI usersFilePath = getClass().getClassLoader().getResource("users.csv").toURI();
+        userRepository = UserRepository.getInstance(new File(usersFilePath));
+        URI accountsFilePath = getClass().getClassLoader().getResource("accounts.csv").toURI();
+        accountRepository = AccountRepository.getInstance(new File(accountsFilePath));
+        server = new SessionServer(0, userRepository, accountRepository, transactionRepository);
+        server.start();
+    }
+
+    @AfterEach
+    @SneakyThrows
+    public void tearDown() {
+        server.close();
+        RepositoryTestSupport.clear(userRepository, accountRepository, transactionRepository);
+    }
+
+    @Test
+    public void testSessionFlow() {
+        try (Client client = new Client(server.getPort())) {
+            assertTrue(client.send("SIGNUP " + SIGNUP_USERNAME1 + " " + PASSWORD + " " + FIRSTNAME + " " + LASTNAME
+                    + " CHECKING_ACCOUNT SILVER 0 100 1234").startsWith("OK"));
+            assertTrue(client.send("BALANCE 1234").startsWith("ERR"));
+            assertTrue(client.send("LOGIN " + SIGNUP_USERNAME1 + " " + PASSWORD).startsWith("OK"));
+            assertTrue(client.send("BALANCE 0000").startsWith("ERR"));
+            assertEquals("OK Your current balance: 100.0USD.", client.send("BALANCE 1234"));
+            assertTrue(client.send("DEPOSIT 1234 50").startsWith("OK"));
+            assertEquals("OK 2", client.send("HISTORY 1234"));
+            client.readLine();
+            client.readLine();
+            assertTrue(client.send("OPEN SAVINGS_ACCOUNT GOLD 0 40 4321").startsWith("OK"));
+            assertEquals("OK Your current balance: 40.0USD.", client.send("BALANCE 4321"));
+            assertEquals("OK 2", client.send("ACCOUNTS"));
+            String checkingAccount = client.readLine().split(":")[0];
+            client.readLine();
+            assertTrue(client.send("USE " + checkingAccount).startsWith("OK"));
+            assertEquals("OK Your current balance: 150.0USD.", client.send("BALANCE 1234"));
+            assertEquals("OK Goodbye!", client.send("LOGOUT"));
+        }
+    }
+
+    @Test
+    public void testAmountsMustBeFinitePositiveNumbers() {
+        try (Client client = new Client(server.getPort())) {
+            client.send("SIGNUP " + SIGNUP_USERNAME1 + " " + PASSWORD + " " + FIRSTNAME + " " + LASTNAME
+                    + " SAVINGS_ACCOUNT SILVER 0 100 1234");
+            client.send("LOGIN " + SIGNUP_USERNAME1 + " " + PASSWORD);
+            assertEquals("ERR Invalid amount.", client.send("DEPOSIT 1234 NaN"));
+            assertEquals("ERR Invalid amount.", client.send("WITHDRAW 1234 NaN"));
+            assertEquals("ERR Invalid amount.", client.send("DEPOSIT 1234 Infinity"));
+            assertEquals("ERR Invalid amount.", client.send("DEPOSIT 1234 -5"));
+            assertEquals("OK 1", client.send("HISTORY 1234"));
+            client.readLine();
+            assertEquals("OK Your current balance: 100.0USD.", client.send("BALANCE 1234"));
+        }
+    }
+
+    @Test
+    public void testDeactivatedAccountCannotBeUsed() {
+        try (Client client = new Client(server.getPort())) {
+            client.send("SIGNUP " + SIGNUP_USERNAME1 + " " + PASSWORD + " " + FIRSTNAME + " " + LASTNAME
+                    + " CHECKING_ACCOUNT SILVER 0 100 1234");
+            client.send("LOGIN " + SIGNUP_USERNAME1 + " " + PASSWORD);
+            assertTrue(client.send("OPEN SAVINGS_ACCOUNT GOLD 0 40 4321").startsWith("OK"));
+            assertEquals("OK 2", client.send("ACCOUNTS"));
+            String checkingAccount = client.readLine().split(":")[0];
+            String savingsAccount = client.readLine().split(":")[0];
+            assertTrue(client.send("USE " + checkingAccount).startsWith("OK"));
+            assertTrue(client.send("DEACTIVATE 1234").startsWith("OK"));
+
+            assertTrue(client.send("USE " + checkingAccount).startsWith("ERR"));
+            assertTrue(client.send("TRANSFER 4321 " + checkingAccount + " 10").startsWith("ERR"));
+            assertEquals("OK Goodbye!", client.send("LOGOUT"));
+            assertTrue(client.send("LOGIN " + SIGNUP_USERNAME1 + " " + PASSWORD).startsWith("OK"));
+            assertEquals("OK Your current balance: 40.0USD.", client.send("BALANCE 4321"));
+            assertTrue(client.send("DEPOSIT 4321 5").startsWith("OK"));
+            assertTrue(client.send("USE " + savingsAccount).startsWith("OK"));
+        }
+    }
+
+    @Test
+    public void testFailedLoginsOverLoopbackDoNotLockOtherUsers() {
+        try (Client attacker = new Client(server.getPort()); Client client = new Client(server.getPort())) {
+            for (int i = 0; i <= LoginThrottle.DEFAULT_MAX_SOURCE_FAILURES; i++) {
+                assertTrue(attacker.send("LOGIN nobody" + i + " " + PASSWORD).startsWith("ERR"));
+            }
+            client.send("SIGNUP " + SIGNUP_USERNAME1 + " " + PASSWORD + " " + FIRSTNAME + " " + LASTNAME
+                    + " SAVINGS_ACCOUNT SILVER 0 100 1234");
+            assertTrue(client.send("LOGIN " + SIGNUP_USERNAME1 + " " + PASSWORD).startsWith("OK"));
+        }
+    }
+
+    @Test
+    public void testThousandConcurrentSessions() throws Exception {
+        CountDownLatch loggedIn = new CountDownLatch(CONCURRENT_SESSIONS);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> balances = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_SESSIONS; i++) {
+                String username = "loaduser" + i;
+                balances.add(clients.submit(() -> {
+                    try (Client client = new Client(server.getPort())) {
+                        client.send("SIGNUP " + username + " " + PASSWORD + " " + FIRSTNAME + " " + LASTNAME
+                                + " SAVINGS_ACCOUNT SILVER 0 100 1234");
+                        client.send("LOGIN " + username + " " + PASSWORD);
+                        loggedIn.countDown();
+                        release.await();
+                        client.send("DEPOSIT 1234 50");
+                        String balance = client.send("BALANCE 1234");
+                        client.send("QUIT");
+                        return balance;
+                    }
+                }));
+            }
+            assertTrue(loggedIn.await(60, TimeUnit.SECONDS));
+            assertEquals(CONCURRENT_SESSIONS, server.getActiveSessions());
+            release.countDown();
+            for (Future<String> balance : balances) {
+                assertEquals("OK Your current balance: 150.0USD.", balance.get(60, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    private static class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final PrintWriter writer;
+
+        @SneakyThrows
+        private Client(int port) {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            readLine();
+        }
+
+        private String send(String command) {
+            writer.println(command);
+            return readLine();
+        }
+
+        @SneakyThrows
+        private String readLine() {
+            return reader.readLine();
+        }
+
+        @Override
+        @SneakyThrows
+        public void close() {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package my.bank.tools;
+
+import my.bank.domain.Account;
+import my.bank.domain.User;
+import my.bank.repository.TransactionRepository;
+import my.bank.repository.TransactionSummary;
+import my.bank.utils.CsvMapperUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetGeneratorTest {
+    private static final int USERS = 500;
+    private static final long TRANSACTIONS = 20_000;
+
+    @TempDir
+    File outputDirectory;
+
+    @Test
+    public void testGeneratedDatasetIsReferentiallyValid() throws IOException {
+        new DatasetGenerator(USERS, TRANSACTIONS, 7).generate(outputDirectory);
+
+        Map<Integer, User> users = read(User.class, "users.csv").stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<Account> accounts = read(Account.class, "accounts.csv");
+        assertEquals(USERS, users.size());
+        assertEquals(USERS, accounts.size());
+        assertTrue(users.get(1).matchPassword(DatasetGenerator.PASSWORD));
+
+        Map<Integer, Account> accountsByNumber = accounts.stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        TransactionSummary summary = TransactionRepository.summarize(new File(outputDirectory, "transactions.csv"));
+        assertEquals(USERS + TRANSACTIONS, summary.getTransactionCount());
+        for (Account account : accounts) {
+            assertTrue(users.containsKey(account.getUserId()));
+            assertEquals(DatasetGenerator.accountNumber(account.getUserId()), account.getAccountNumber());
+            for (Integer favorite : account.getFavoriteAccounts()) {
+                assertTrue(accountsByNumber.containsKey(favorite));
+                assertNotEquals(account.getAccountNumber(), favorite);
+            }
+            assertTrue(account.getBalance() >= 0.0);
+            assertEquals(summary.getBalance(account.getAccountNumber()), account.getBalance(), 0.001);
+        }
+    }
+
+    @Test
+    public void testTransactionsAreChronologicalAndSkewed() {
+        new DatasetGenerator(USERS, TRANSACTIONS, 7).generate(outputDirectory);
+
+        LocalDateTime[] previous = {LocalDateTime.MIN};
+        int[] perAccount = new int[USERS];
+        TransactionRepository.forEachTransaction(new File(outputDirectory, "transactions.csv"), transaction -> {
+            assertFalse(transaction.getTimestamp().isBefore(previous[0]));
+            previous[0] = transaction.getTimestamp();
+            perAccount[transaction.getAccountNumber() - DatasetGenerator.FIRST_ACCOUNT_NUMBER]++;
+        });
+        assertTrue(perAccount[0] > 10 * perAccount[USERS - 1]);
+    }
+
+    private <T> List<T> read(Class<T> type, String fileName) throws IOException {
+        return CsvMapperUtils.readerFor(type).<T>readValues(new File(outputDirectory, fileName)).readAll();
+    }
+}
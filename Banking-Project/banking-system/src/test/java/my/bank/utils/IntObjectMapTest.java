@@ -0,0 +1,70 @@
+package my.bank.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    @Test
+    public void testMatchesHashMapBehaviour() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(50_000) - 25_000;
+            String value = "v" + i;
+            assertEquals(expected.put(key, value), map.put(key, value));
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = -25_000; key < 25_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected.size(), map.values().size());
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(expected.keySet().iterator().next()));
+    }
+
+    @Test
+    public void testReadersNeverMissKeysDuringResizes() throws Exception {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        map.put(10001, 10001);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            Future<?> writer = executor.submit(() -> {
+                for (int key = 10002; key < 200_000; key++) {
+                    map.put(key, key);
+                }
+                writing.set(false);
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 3; reader++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        assertEquals(10001, map.get(10001));
+                    }
+                    return null;
+                }));
+            }
+            writer.get();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        }
+        assertEquals(200_000 - 10001, map.size());
+    }
+}
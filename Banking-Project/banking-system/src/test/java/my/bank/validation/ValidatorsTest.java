@@ -0,0 +1,39 @@
+package my.bank.validation;
+
+import org.junit.jupiter.api.Test;
+
+import static my.bank.TestFixtures.PASSWORD;
+import static my.bank.TestFixtures.SIGNUP_USERNAME1;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorsTest {
+
+    @Test
+    public void testUsername() {
+        assertTrue(Validators.validateUsername(SIGNUP_USERNAME1).isValid());
+        assertTrue(Validators.validateUsername("user_01.é").isValid());
+        assertFalse(Validators.validateUsername(null).isValid());
+        assertFalse(Validators.validateUsername("   ").isValid());
+        assertFalse(Validators.validateUsername("userName").isValid());
+    }
+
+    @Test
+    public void testPassword() {
+        assertTrue(Validators.validatePassword(PASSWORD).isValid());
+        assertEquals("Password must be at least 6 characters long.", Validators.validatePassword("Ab1").message());
+        assertEquals("Password must be at least 6 characters long.", Validators.validatePassword(null).message());
+        assertEquals("Password must contain at least one lowercase letter.", Validators.validatePassword("ABCDE1").message());
+        assertEquals("Password must contain at least one uppercase letter.", Validators.validatePassword("abcde1").message());
+        assertEquals("Password must contain at least one digit.", Validators.validatePassword("Abcdef").message());
+    }
+
+    @Test
+    public void testPin() {
+        assertTrue(Validators.validatePin("0123").isValid());
+        assertFalse(Validators.validatePin(null).isValid());
+        assertFalse(Validators.validatePin("123").isValid());
+        assertFalse(Validators.validatePin("12345").isValid());
+        assertFalse(Validators.validatePin("12a4").isValid());
+        assertFalse(Validators.validatePin("١٢٣٤").isValid());
+    }
+}